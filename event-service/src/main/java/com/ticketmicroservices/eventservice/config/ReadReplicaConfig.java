@@ -0,0 +1,167 @@
+package com.ticketmicroservices.eventservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.WebUtils;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read replicas for GET traffic. Only active when event.read-replicas.urls is set; replicas
+// use the primary's credentials. GET requests may read from a replica unless the caller wrote
+// within the read-your-writes window: every other request sets a short-lived cookie, which the
+// browser sends back through the gateway to whichever instance serves its next read. Other
+// requests, background jobs and read-write transactions always use the primary.
+@Configuration
+@ConditionalOnExpression("!'${event.read-replicas.urls:}'.isEmpty()")
+public class ReadReplicaConfig implements WebMvcConfigurer {
+
+  private static final String PIN_COOKIE = "read-primary-until";
+
+  @Value("${event.read-replicas.urls}")
+  private List<String> replicaUrls;
+
+  @Value("${event.read-replicas.pool-size:10}")
+  private int replicaPoolSize;
+
+  @Value("${event.read-replicas.max-lag-ms:1000}")
+  private long maxLagMs;
+
+  @Value("${event.read-replicas.read-your-writes-ms:5000}")
+  private long readYourWritesMs;
+
+  private final List<HikariDataSource> replicas = new ArrayList<>();
+
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName("primary");
+    return primary;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(HikariDataSource primaryDataSource, DataSourceProperties properties) {
+    for (String url : replicaUrls) {
+      HikariDataSource replica = new HikariDataSource();
+      replica.setPoolName("replica-" + replicas.size());
+      replica.setJdbcUrl(url.trim());
+      replica.setUsername(properties.determineUsername());
+      replica.setPassword(properties.determinePassword());
+      replica.setMaximumPoolSize(replicaPoolSize);
+      replica.setReadOnly(true);
+      replicas.add(replica);
+    }
+    routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, new ArrayList<>(replicas), maxLagMs);
+    routingDataSource.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  // The replica pools are not beans, so nothing else closes them. The routing data source
+  // and everything using it are beans created from this configuration and go first.
+  @PreDestroy
+  public void closeReplicas() {
+    for (HikariDataSource replica : replicas) {
+      replica.close();
+    }
+  }
+
+  // Replica pools are not beans, so their pool metrics and lag are bound here. Taking the
+  // data source keeps the meter registry out of its dependencies.
+  @Bean
+  public MeterBinder readReplicaMetrics(DataSource dataSource) {
+    return registry -> {
+      for (int i = 0; i < replicas.size(); i++) {
+        int replica = i;
+        replicas.get(i).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        Gauge.builder("event.datasource.replica.lag", routingDataSource, r -> r.getLagMs(replica))
+            .tag("replica", String.valueOf(replica))
+            .baseUnit("milliseconds")
+            .register(registry);
+      }
+    };
+  }
+
+  @Scheduled(fixedDelayString = "${event.read-replicas.lag-check-ms:1000}")
+  public void refreshReplicaLag() {
+    if (routingDataSource != null) {
+      routingDataSource.refreshLag();
+    }
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new AsyncHandlerInterceptor() {
+      @Override
+      public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+          // Set before the handler runs, while the response can still take headers
+          pinToPrimary(response);
+          return true;
+        }
+        ReplicaRoutingDataSource.allowReplicaReads(!isPinned(request));
+        return true;
+      }
+
+      @Override
+      public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+          Exception ex) {
+        ReplicaRoutingDataSource.allowReplicaReads(false);
+      }
+
+      @Override
+      public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+          Object handler) {
+        ReplicaRoutingDataSource.allowReplicaReads(false);
+      }
+    });
+  }
+
+  private void pinToPrimary(HttpServletResponse response) {
+    long until = System.currentTimeMillis() + readYourWritesMs;
+    ResponseCookie cookie = ResponseCookie.from(PIN_COOKIE, Long.toString(until))
+        .path("/")
+        .maxAge(Duration.ofMillis(readYourWritesMs))
+        .httpOnly(true)
+        .sameSite("Lax")
+        .build();
+    response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+  }
+
+  private boolean isPinned(HttpServletRequest request) {
+    Cookie cookie = WebUtils.getCookie(request, PIN_COOKIE);
+    if (cookie == null) {
+      return false;
+    }
+    try {
+      return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+}
@@ -40,6 +40,10 @@ public class Event {
   @Column(name = "updated_at")
   private LocalDateTime updatedAt;
 
+  // Bumped on every update; a stale write fails instead of overwriting
+  @Version
+  private Long version;
+
   @Enumerated(EnumType.STRING)
   private EventStatus status;
 
@@ -155,6 +159,14 @@ public class Event {
     this.updatedAt = updatedAt;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
   public EventStatus getStatus() {
     return status;
   }
@@ -1,5 +1,7 @@
 package com.ticketmicroservices.eventservice.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ticketmicroservices.eventservice.document.EventLog;
 import com.ticketmicroservices.eventservice.dto.CreateEventRequest;
 import com.ticketmicroservices.eventservice.dto.EventDto;
@@ -7,11 +9,13 @@ import com.ticketmicroservices.eventservice.entity.Event;
 import com.ticketmicroservices.eventservice.repository.EventRepository;
 import com.ticketmicroservices.eventservice.repository.EventLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,8 +28,15 @@ public class EventService {
   private EventLogRepository eventLogRepository;
 
   @Autowired
-  private KafkaTemplate<String, String> kafkaTemplate;
+  private OutboxPublisher outboxPublisher;
 
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private OptimisticRetry optimisticRetry;
+
+  @Transactional
   public EventDto createEvent(CreateEventRequest request, Long userId) {
     Event event = new Event(
         request.getName(),
@@ -42,12 +53,14 @@ public class EventService {
     EventLog log = new EventLog(event.getId(), "CREATED", "Event created by user " + userId, userId);
     eventLogRepository.save(log);
 
-    // Send event created notification
-    kafkaTemplate.send("event-notifications", "EVENT_CREATED", event.getId().toString());
+    // Send event created notification; ticket-service provisions the seats from it
+    outboxPublisher.publish("event-notifications", event.getId().toString(), "EVENT_CREATED",
+        toEventCreatedPayload(event));
 
     return convertToDto(event);
   }
 
+  @Transactional(readOnly = true)
   public List<EventDto> getActiveEvents() {
     List<Event> events = eventRepository.findByStatusAndEventDateAfter(
         Event.EventStatus.ACTIVE,
@@ -55,11 +68,13 @@ public class EventService {
     return events.stream().map(this::convertToDto).collect(Collectors.toList());
   }
 
+  @Transactional(readOnly = true)
   public List<EventDto> getEventsByUser(Long userId) {
     List<Event> events = eventRepository.findByCreatedBy(userId);
     return events.stream().map(this::convertToDto).collect(Collectors.toList());
   }
 
+  @Transactional(readOnly = true)
   public EventDto getEventById(Long id) {
     Event event = eventRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("Event not found"));
@@ -67,16 +82,31 @@ public class EventService {
   }
 
   public EventDto updateAvailableTickets(Long eventId, Integer ticketsSold) {
-    Event event = eventRepository.findById(eventId)
-        .orElseThrow(() -> new RuntimeException("Event not found"));
+    return optimisticRetry.execute("updateAvailableTickets", () -> {
+      Event event = eventRepository.findById(eventId)
+          .orElseThrow(() -> new RuntimeException("Event not found"));
 
-    event.setAvailableTickets(event.getAvailableTickets() - ticketsSold);
-    event = eventRepository.save(event);
+      event.setAvailableTickets(event.getAvailableTickets() - ticketsSold);
+      event = eventRepository.save(event);
 
-    // Send ticket availability update
-    kafkaTemplate.send("ticket-updates", "TICKETS_SOLD", eventId.toString());
+      // Send ticket availability update
+      outboxPublisher.publish("ticket-updates", eventId.toString(), "TICKETS_SOLD", eventId.toString());
 
-    return convertToDto(event);
+      return convertToDto(event);
+    });
+  }
+
+  private String toEventCreatedPayload(Event event) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("type", "EVENT_CREATED");
+    payload.put("eventId", event.getId());
+    payload.put("totalTickets", event.getTotalTickets());
+    payload.put("ticketPrice", event.getTicketPrice());
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize event notification", e);
+    }
   }
 
   private EventDto convertToDto(Event event) {
@@ -0,0 +1,24 @@
+package com.ticketmicroservices.eventservice.service;
+
+import com.ticketmicroservices.eventservice.entity.OutboxMessage;
+import com.ticketmicroservices.eventservice.repository.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Records outgoing Kafka messages in the caller's transaction; OutboxRelay sends them once
+// that transaction has committed
+@Service
+public class OutboxPublisher {
+
+  @Autowired
+  private OutboxMessageRepository outboxMessageRepository;
+
+  // The key is the id of the aggregate the message is about, so Kafka keeps each aggregate's
+  // messages in order
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void publish(String topic, String key, String eventType, String payload) {
+    outboxMessageRepository.save(new OutboxMessage(topic, key, eventType, payload));
+  }
+}
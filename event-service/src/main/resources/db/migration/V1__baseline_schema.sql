@@ -0,0 +1,25 @@
+-- Event service schema as it stood when Hibernate's ddl-auto=update still managed it.
+-- IF NOT EXISTS lets the script run against a database update already built.
+
+CREATE TABLE IF NOT EXISTS events (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name varchar(255) NOT NULL,
+  description text,
+  event_date timestamp NOT NULL,
+  venue varchar(255) NOT NULL,
+  total_tickets integer NOT NULL,
+  available_tickets integer NOT NULL,
+  ticket_price double precision NOT NULL,
+  created_by bigint NOT NULL,
+  created_at timestamp,
+  updated_at timestamp,
+  status varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS event_outbox (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  topic varchar(255) NOT NULL,
+  message_key varchar(255) NOT NULL,
+  payload text NOT NULL,
+  created_at timestamp NOT NULL
+);
@@ -0,0 +1,5 @@
+-- Upcoming events by status: equality on status, range on event_date
+CREATE INDEX IF NOT EXISTS idx_events_status_event_date ON events (status, event_date);
+
+-- Events an organiser created
+CREATE INDEX IF NOT EXISTS idx_events_created_by ON events (created_by);
@@ -109,6 +109,15 @@ async function handlePaymentEvent(event) {
 }
 
 async function handleTicketEvent(event) {
+    // Bulk confirm/cancel publishes one event per chunk; notify each order's user
+    if (event.type === 'TICKETS_SOLD_BATCH' || event.type === 'TICKETS_CANCELLED_BATCH') {
+        const type = event.type.replace('_BATCH', '');
+        for (const order of event.orders) {
+            await handleTicketEvent({ type, orderId: order.orderId, userId: order.userId });
+        }
+        return;
+    }
+
     const notification = {
         type: 'ticket',
         title: 'Ticket Update',
@@ -3,9 +3,11 @@ package com.ticketmicroservices.orderservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableKafka
+@EnableScheduling
 public class OrderServiceApplication {
   public static void main(String[] args) {
     SpringApplication.run(OrderServiceApplication.class, args);
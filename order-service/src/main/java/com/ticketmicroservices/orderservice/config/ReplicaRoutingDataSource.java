@@ -0,0 +1,141 @@
+package com.ticketmicroservices.orderservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Sends read-only transactions to a read replica and everything else to the primary. A read
+// only goes to a replica when the current thread has opted in (see ReadReplicaConfig) and a
+// replica is within the lag bound; otherwise it stays on the primary. Must sit behind a
+// LazyConnectionDataSourceProxy so the transaction's read-only flag is set before a
+// connection is chosen.
+//
+// On an opted-in thread this covers more than the service methods marked read-only: the CRUD
+// methods repositories inherit from SimpleJpaRepository (findById, findAll, count...) run in
+// its own @Transactional(readOnly = true), so called outside a transaction they read from a
+// replica too. Declared query methods get no transaction of their own and follow the caller.
+// Reads that must see the latest commit go through onPrimary.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+  private static final String PRIMARY = "primary";
+  private static final long UNREACHABLE = Long.MAX_VALUE;
+
+  private static final String PRIMARY_LSN_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+  // Lag in milliseconds against a primary position read just before; zero when the replica has
+  // replayed up to it or is not a standby. Behind it, the age of the last replayed commit is
+  // taken as the lag, so a standby that lost its upstream falls further behind every check.
+  private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+      + "OR pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0 "
+      + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END::bigint";
+
+  private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+  private final DataSource primary;
+  private final List<DataSource> replicas;
+  private final AtomicLongArray lagMs;
+  private final long maxLagMs;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLagMs) {
+    this.primary = primary;
+    this.replicas = replicas;
+    this.lagMs = new AtomicLongArray(replicas.size());
+    this.maxLagMs = maxLagMs;
+    for (int i = 0; i < replicas.size(); i++) {
+      lagMs.set(i, UNREACHABLE);
+    }
+
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targets.put(i, replicas.get(i));
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+  }
+
+  public static void allowReplicaReads(boolean allowed) {
+    if (allowed) {
+      REPLICA_ALLOWED.set(Boolean.TRUE);
+    } else {
+      REPLICA_ALLOWED.remove();
+    }
+  }
+
+  // Runs work against the primary even on a thread that may read from a replica. Call it
+  // before the surrounding transaction, if any, has taken a connection.
+  public static <T> T onPrimary(Supplier<T> work) {
+    Boolean allowed = REPLICA_ALLOWED.get();
+    REPLICA_ALLOWED.remove();
+    try {
+      return work.get();
+    } finally {
+      if (allowed != null) {
+        REPLICA_ALLOWED.set(allowed);
+      }
+    }
+  }
+
+  public int getReplicaCount() {
+    return replicas.size();
+  }
+
+  public long getLagMs(int replica) {
+    return lagMs.get(replica);
+  }
+
+  // Measures every replica; one that cannot be reached is skipped until it answers again.
+  // Without the primary's position no replica can be shown to be current.
+  public void refreshLag() {
+    String primaryLsn;
+    try {
+      primaryLsn = new JdbcTemplate(primary).queryForObject(PRIMARY_LSN_QUERY, String.class);
+    } catch (RuntimeException e) {
+      logger.warn("Cannot read the primary's WAL position, keeping reads on the primary: {}", e.getMessage());
+      for (int i = 0; i < replicas.size(); i++) {
+        lagMs.set(i, UNREACHABLE);
+      }
+      return;
+    }
+    for (int i = 0; i < replicas.size(); i++) {
+      try {
+        Long lag = new JdbcTemplate(replicas.get(i)).queryForObject(LAG_QUERY, Long.class, primaryLsn);
+        lagMs.set(i, lag == null ? UNREACHABLE : lag);
+      } catch (RuntimeException e) {
+        if (lagMs.getAndSet(i, UNREACHABLE) != UNREACHABLE) {
+          logger.warn("Read replica {} is unreachable: {}", i, e.getMessage());
+        }
+      }
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!Boolean.TRUE.equals(REPLICA_ALLOWED.get())
+        || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return PRIMARY;
+    }
+    // Round robin over the replicas that are close enough to the primary
+    int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+    for (int i = 0; i < replicas.size(); i++) {
+      int replica = (start + i) % replicas.size();
+      if (lagMs.get(replica) <= maxLagMs) {
+        return replica;
+      }
+    }
+    return PRIMARY;
+  }
+}
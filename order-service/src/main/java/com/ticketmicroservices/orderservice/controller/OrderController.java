@@ -1,13 +1,25 @@
 package com.ticketmicroservices.orderservice.controller;
 
 import com.ticketmicroservices.orderservice.dto.CreateOrderRequest;
+import com.ticketmicroservices.orderservice.dto.CursorPageDto;
 import com.ticketmicroservices.orderservice.dto.OrderDto;
+import com.ticketmicroservices.orderservice.service.AdmissionTokenVerifier;
+import com.ticketmicroservices.orderservice.service.IdempotencyStore;
+import com.ticketmicroservices.orderservice.service.IllegalOrderTransitionException;
+import com.ticketmicroservices.orderservice.service.OrderIntakeQueue;
+import com.ticketmicroservices.orderservice.service.OrderIntakeUnavailableException;
 import com.ticketmicroservices.orderservice.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -16,10 +28,38 @@ public class OrderController {
   @Autowired
   private OrderService orderService;
 
+  @Autowired
+  private AdmissionTokenVerifier admissionTokenVerifier;
+
+  @Autowired
+  private IdempotencyStore idempotencyStore;
+
+  @Autowired
+  private OrderIntakeQueue orderIntakeQueue;
+
   @PostMapping
-  public ResponseEntity<OrderDto> createOrder(@RequestBody CreateOrderRequest request) {
-    OrderDto order = orderService.createOrder(request);
-    return ResponseEntity.ok(order);
+  public CompletableFuture<ResponseEntity<OrderDto>> createOrder(@RequestBody CreateOrderRequest request,
+      @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+    if (!isValid(request)) {
+      return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+    }
+    if (!admissionTokenVerifier.isAdmitted(request.getEventId(), admissionToken)) {
+      return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    }
+    String key = idempotencyKey == null ? null : "order:" + request.getUserId() + ":" + idempotencyKey;
+    if (orderIntakeQueue.isEnabled()) {
+      // Answered once the order's batch has committed; the saga carries it on from there
+      return idempotencyStore.execute(key, () -> orderIntakeQueue.submit(request))
+          .thenApply(this::created);
+    }
+    return idempotencyStore.execute(key, () -> CompletableFuture.completedFuture(orderService.createOrder(request)))
+        .thenApply(this::created);
+  }
+
+  // Either way the order row has committed by the time this is sent
+  private ResponseEntity<OrderDto> created(OrderDto order) {
+    return ResponseEntity.created(URI.create("/api/orders/" + order.getId())).body(order);
   }
 
   @GetMapping("/{id}")
@@ -34,6 +74,20 @@ public class OrderController {
     return ResponseEntity.ok(orders);
   }
 
+  @GetMapping("/user/{userId}/page")
+  public ResponseEntity<CursorPageDto<OrderDto>> getOrderPageByUser(@PathVariable Long userId,
+      @RequestParam(required = false) Long cursor,
+      @RequestParam(defaultValue = "50") int limit) {
+    CursorPageDto<OrderDto> page = orderService.getOrderPageByUser(userId, cursor, limit);
+    return ResponseEntity.ok(page);
+  }
+
+  @GetMapping(value = "/user/{userId}/stream", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> streamOrdersByUser(@PathVariable Long userId) {
+    StreamingResponseBody body = out -> orderService.streamOrdersByUser(userId, out);
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+  }
+
   @PutMapping("/{id}/confirm")
   public ResponseEntity<OrderDto> confirmOrder(@PathVariable Long id) {
     OrderDto order = orderService.confirmOrder(id);
@@ -46,8 +100,29 @@ public class OrderController {
     return ResponseEntity.ok(order);
   }
 
+  // A transition the order's current status does not allow
+  @ExceptionHandler(IllegalOrderTransitionException.class)
+  public ResponseEntity<String> handleIllegalTransition(IllegalOrderTransitionException e) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+  }
+
+  // Back-pressure from the intake queue; the client should try again shortly
+  @ExceptionHandler(OrderIntakeUnavailableException.class)
+  public ResponseEntity<String> handleIntakeUnavailable(OrderIntakeUnavailableException e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(e.getMessage());
+  }
+
   @GetMapping("/health")
   public ResponseEntity<String> health() {
     return ResponseEntity.ok("Order Service is running");
   }
-}
\ No newline at end of file
+
+  private boolean isValid(CreateOrderRequest request) {
+    return request.getUserId() != null
+        && request.getEventId() != null
+        && request.getTicketQuantity() != null && request.getTicketQuantity() > 0
+        && request.getTotalAmount() != null && request.getTotalAmount() >= 0;
+  }
+}
@@ -1,13 +1,24 @@
 package com.ticketmicroservices.orderservice.entity;
 
+import org.hibernate.annotations.GenericGenerator;
+
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Entity
 @Table(name = "orders")
 public class Order {
+  // Assigned in-process (see SnowflakeIdGenerator), so order inserts can be batched
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(generator = "order-id")
+  @GenericGenerator(name = "order-id", strategy = "com.ticketmicroservices.orderservice.entity.SnowflakeIdGenerator")
   private Long id;
 
   @Column(name = "user_id", nullable = false)
@@ -31,8 +42,34 @@ public class Order {
   @Column(name = "updated_at")
   private LocalDateTime updatedAt;
 
+  // Bumped on every update; a stale write fails instead of overwriting
+  @Version
+  private Long version;
+
   public enum OrderStatus {
-    PENDING, CONFIRMED, CANCELLED, FAILED
+    PENDING, CONFIRMED, CANCELLED, FAILED;
+
+    // Transition table: the statuses an order may move to from each status
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+      TRANSITIONS.put(PENDING, EnumSet.of(CONFIRMED, CANCELLED, FAILED));
+      TRANSITIONS.put(CONFIRMED, EnumSet.of(CANCELLED));
+      TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+      TRANSITIONS.put(FAILED, EnumSet.noneOf(OrderStatus.class));
+    }
+
+    public boolean canMoveTo(OrderStatus target) {
+      return TRANSITIONS.get(this).contains(target);
+    }
+
+    // Names of the statuses `target` can be reached from, for the conditional update
+    public static List<String> sourcesOf(OrderStatus target) {
+      return Arrays.stream(values())
+          .filter(status -> status.canMoveTo(target))
+          .map(Enum::name)
+          .collect(Collectors.toList());
+    }
   }
 
   // Constructors
@@ -113,4 +150,12 @@ public class Order {
   public void setUpdatedAt(LocalDateTime updatedAt) {
     this.updatedAt = updatedAt;
   }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.ticketmicroservices.orderservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// Where an order's reserve -> pay -> confirm saga stands. Reservation and payment run in
+// parallel, so the in-flight states record which of the two has already arrived.
+@Entity
+@Table(name = "order_sagas")
+public class OrderSaga {
+  @Id
+  @Column(name = "order_id")
+  private Long orderId;
+
+  @Column(name = "event_id", nullable = false)
+  private Long eventId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private SagaState state;
+
+  // When the current step gives up: a timeout for waiting states, a retry for steps in progress
+  @Column(name = "deadline_at", nullable = false)
+  private LocalDateTime deadlineAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private LocalDateTime updatedAt;
+
+  @Version
+  private Long version;
+
+  public enum SagaState {
+    STARTED, TICKETS_RESERVED, PAYMENT_RECEIVED, CONFIRMING, COMPLETED, COMPENSATING, COMPENSATED;
+
+    public boolean isTerminal() {
+      return this == COMPLETED || this == COMPENSATED;
+    }
+  }
+
+  public OrderSaga() {
+  }
+
+  public OrderSaga(Long orderId, Long eventId, LocalDateTime deadlineAt) {
+    this.orderId = orderId;
+    this.eventId = eventId;
+    this.state = SagaState.STARTED;
+    this.deadlineAt = deadlineAt;
+    this.updatedAt = LocalDateTime.now();
+  }
+
+  public Long getOrderId() {
+    return orderId;
+  }
+
+  public void setOrderId(Long orderId) {
+    this.orderId = orderId;
+  }
+
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  public SagaState getState() {
+    return state;
+  }
+
+  public void setState(SagaState state) {
+    this.state = state;
+  }
+
+  public LocalDateTime getDeadlineAt() {
+    return deadlineAt;
+  }
+
+  public void setDeadlineAt(LocalDateTime deadlineAt) {
+    this.deadlineAt = deadlineAt;
+  }
+
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(LocalDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+}
@@ -0,0 +1,89 @@
+package com.ticketmicroservices.orderservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+// A Kafka message recorded in the same transaction as the change it announces
+@Entity
+@Table(name = "order_outbox")
+public class OutboxMessage {
+  @Id
+  // Drawn 50 at a time, so a batch of orders inserts its messages in one JDBC batch
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_id")
+  @SequenceGenerator(name = "order_outbox_id", sequenceName = "order_outbox_id_seq", allocationSize = 50)
+  private Long id;
+
+  @Column(nullable = false)
+  private String topic;
+
+  @Column(name = "message_key", nullable = false)
+  private String messageKey;
+
+  @Column(name = "event_type", nullable = false)
+  private String eventType;
+
+  @Column(nullable = false, columnDefinition = "text")
+  private String payload;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  public OutboxMessage() {
+  }
+
+  public OutboxMessage(String topic, String messageKey, String eventType, String payload) {
+    this.topic = topic;
+    this.messageKey = messageKey;
+    this.eventType = eventType;
+    this.payload = payload;
+    this.createdAt = LocalDateTime.now();
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getTopic() {
+    return topic;
+  }
+
+  public void setTopic(String topic) {
+    this.topic = topic;
+  }
+
+  public String getMessageKey() {
+    return messageKey;
+  }
+
+  public void setMessageKey(String messageKey) {
+    this.messageKey = messageKey;
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+
+  public void setEventType(String eventType) {
+    this.eventType = eventType;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public void setPayload(String payload) {
+    this.payload = payload;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+}
@@ -0,0 +1,120 @@
+package com.ticketmicroservices.orderservice.entity;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Time-ordered ids assigned in-process, so inserts need no round trip and can be batched.
+//
+//   | 31 bits: seconds since 2024-01-01 | 8 bits: node | 14 bits: sequence |
+//
+// 53 bits in all: order ids travel through the Node services as JSON numbers, which are only
+// exact up to 2^53. The seconds and sequence share one AtomicLong and advance by CAS, so
+// generating is lock-free and allocates nothing beyond the boxed id. A burst past 16384 ids in
+// a second carries into the next second, and a clock that steps back is ignored because the
+// state never moves backwards; either way ids keep their order and run briefly ahead of the wall
+// clock instead of blocking. A fresh generator starts after the second of the highest id already
+// stored, which covers a clock that stepped back across a restart.
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+  public static final String NODE_ID_SETTING = "order.id.node-id";
+
+  private static final long EPOCH_SECONDS = 1704067200L;
+  private static final int NODE_BITS = 8;
+  private static final int SEQUENCE_BITS = 14;
+  private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+  private static final long MAX_SECONDS = (1L << 31) - 1;
+
+  // (seconds << SEQUENCE_BITS) | sequence of the last id handed out
+  private final AtomicLong state = new AtomicLong();
+  private final LongSupplier clock;
+  private long nodeBits;
+  private String seedQuery;
+  private volatile boolean seeded;
+
+  public SnowflakeIdGenerator() {
+    this(System::currentTimeMillis);
+  }
+
+  // Lets tests stand the wall clock still or step it back
+  SnowflakeIdGenerator(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+    ConfigurationService settings = serviceRegistry.getService(ConfigurationService.class);
+    // Two instances on the same node would hand out the same ids, so there is no default
+    String node = settings.getSetting(NODE_ID_SETTING, Object::toString, "");
+    if (node.isBlank()) {
+      throw new MappingException(NODE_ID_SETTING + " is not set; give each order-service instance its own "
+          + "ORDER_ID_NODE (0-" + MAX_NODE + "), or run a single local instance with the local profile");
+    }
+    long nodeId = Long.parseLong(node.trim());
+    if (nodeId < 0 || nodeId > MAX_NODE) {
+      throw new MappingException(NODE_ID_SETTING + " must be between 0 and " + MAX_NODE + ", was " + nodeId);
+    }
+    this.nodeBits = nodeId << SEQUENCE_BITS;
+    this.seedQuery = "SELECT COALESCE(MAX(" + params.getProperty(PersistentIdentifierGenerator.PK) + "), 0) FROM "
+        + params.getProperty(PersistentIdentifierGenerator.TABLE);
+  }
+
+  @Override
+  public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+    if (!seeded) {
+      seed(session);
+    }
+    return nextId();
+  }
+
+  public long nextId() {
+    while (true) {
+      long now = clock.getAsLong() / 1000 - EPOCH_SECONDS;
+      long current = state.get();
+      long next = Math.max(current + 1, now << SEQUENCE_BITS);
+      long seconds = next >>> SEQUENCE_BITS;
+      if (seconds > MAX_SECONDS) {
+        throw new HibernateException("Order id space is exhausted");
+      }
+      if (state.compareAndSet(current, next)) {
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (seconds << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | sequence;
+      }
+    }
+  }
+
+  // Runs on its own connection so the caller's persist is not flushed early
+  private synchronized void seed(SharedSessionContractImplementor session) {
+    if (seeded) {
+      return;
+    }
+    try {
+      Connection connection = session.getJdbcConnectionAccess().obtainConnection();
+      try (Statement statement = connection.createStatement();
+           ResultSet rs = statement.executeQuery(seedQuery)) {
+        rs.next();
+        long maxSeconds = rs.getLong(1) >>> (NODE_BITS + SEQUENCE_BITS);
+        state.accumulateAndGet(((maxSeconds + 1) << SEQUENCE_BITS) - 1, Math::max);
+      } finally {
+        session.getJdbcConnectionAccess().releaseConnection(connection);
+      }
+    } catch (SQLException e) {
+      throw new HibernateException("Could not read the highest existing id", e);
+    }
+    seeded = true;
+  }
+}
@@ -0,0 +1,48 @@
+package com.ticketmicroservices.orderservice.listener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.orderservice.service.OrderCache;
+import com.ticketmicroservices.orderservice.service.OutboxRelay;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+// Every instance joins with its own group id, so each one sees every order status change
+@Component
+public class OrderCacheListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(OrderCacheListener.class);
+
+  @Autowired
+  private OrderCache orderCache;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @KafkaListener(topics = "order-events", groupId = "order-service-cache-${random.uuid}",
+      properties = "auto.offset.reset=latest")
+  public void onOrderEvent(ConsumerRecord<String, String> record) {
+    String eventType = OutboxRelay.eventTypeOf(record);
+    if (!"ORDER_CONFIRMED".equals(eventType) && !"ORDER_CANCELLED".equals(eventType)) {
+      return;
+    }
+
+    JsonNode payload;
+    try {
+      payload = objectMapper.readTree(record.value());
+    } catch (JsonProcessingException e) {
+      logger.warn("Skipping unreadable order event: {}", record.value());
+      return;
+    }
+    // Events written before the payload became JSON carry the bare order id
+    JsonNode orderId = payload.isNumber() ? payload : payload.get("orderId");
+    if (orderId != null) {
+      orderCache.evict(orderId.asLong());
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.ticketmicroservices.orderservice.listener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.orderservice.service.OutboxRelay;
+import com.ticketmicroservices.orderservice.service.SagaOrchestrator;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+// Feeds ticket and payment events into the order sagas
+@Component
+public class SagaEventListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(SagaEventListener.class);
+
+  @Autowired
+  private SagaOrchestrator sagaOrchestrator;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  // Single-order events carry the order id as the value; bulk releases carry a JSON batch
+  @KafkaListener(topics = "ticket-events")
+  public void onTicketEvent(ConsumerRecord<String, String> record) {
+    String eventType = OutboxRelay.eventTypeOf(record);
+    if (eventType == null) {
+      return;
+    }
+    switch (eventType) {
+      case "TICKETS_RESERVED":
+        sagaOrchestrator.onTicketsReserved(Long.valueOf(record.value()));
+        break;
+      case "TICKETS_CANCELLED":
+        sagaOrchestrator.onTicketsReleased(Long.valueOf(record.value()));
+        break;
+      case "TICKETS_CANCELLED_BATCH":
+        JsonNode batch = readJson(record.value());
+        if (batch != null) {
+          batch.path("orders").forEach(order -> sagaOrchestrator.onTicketsReleased(order.get("orderId").asLong()));
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  @KafkaListener(topics = "payment-events")
+  public void onPaymentEvent(ConsumerRecord<String, String> record) {
+    JsonNode payload = readJson(record.value());
+    if (payload == null || !payload.hasNonNull("orderId")) {
+      logger.warn("Skipping payment event without an order: {}", record.value());
+      return;
+    }
+
+    Long orderId = payload.get("orderId").asLong();
+    String type = payload.path("type").asText();
+    if ("PAYMENT_SUCCESS".equals(type)) {
+      sagaOrchestrator.onPaymentSucceeded(orderId);
+    } else if ("PAYMENT_FAILED".equals(type)) {
+      sagaOrchestrator.onPaymentFailed(orderId);
+    }
+  }
+
+  private JsonNode readJson(String value) {
+    try {
+      return objectMapper.readTree(value);
+    } catch (JsonProcessingException e) {
+      logger.warn("Skipping unreadable event: {}", value);
+      return null;
+    }
+  }
+}
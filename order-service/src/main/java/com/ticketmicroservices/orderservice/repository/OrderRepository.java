@@ -1,14 +1,54 @@
 package com.ticketmicroservices.orderservice.repository;
 
 import com.ticketmicroservices.orderservice.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+  // Closed projection: only these columns are selected
+  interface OrderView {
+    Long getId();
+
+    Long getUserId();
+
+    Long getEventId();
+
+    Double getTotalAmount();
+
+    Integer getTicketQuantity();
+
+    Order.OrderStatus getStatus();
+
+    LocalDateTime getCreatedAt();
+  }
+
   List<Order> findByUserId(Long userId);
 
+  // Keyset pages, newest first: pass the last id seen as `beforeId`
+  List<OrderView> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long beforeId, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  Stream<OrderView> streamByUserIdOrderByIdDesc(Long userId);
+
   List<Order> findByEventId(Long eventId);
+
+  // Compare-and-set status change: updates only while the order is in one of `fromStatuses`
+  // and returns the new row, or nothing if the order is missing or in another status
+  @Query(value = "UPDATE orders SET status = :toStatus, updated_at = :now, version = version + 1 "
+      + "WHERE id = :id AND status IN (:fromStatuses) RETURNING *", nativeQuery = true)
+  Optional<Order> transitionStatus(@Param("id") Long id, @Param("toStatus") String toStatus,
+      @Param("fromStatuses") List<String> fromStatuses, @Param("now") LocalDateTime now);
 }
\ No newline at end of file
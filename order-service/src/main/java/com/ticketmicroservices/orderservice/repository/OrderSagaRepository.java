@@ -0,0 +1,22 @@
+package com.ticketmicroservices.orderservice.repository;
+
+import com.ticketmicroservices.orderservice.entity.OrderSaga;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderSagaRepository extends JpaRepository<OrderSaga, Long> {
+  interface SagaDeadline {
+    Long getOrderId();
+
+    LocalDateTime getDeadlineAt();
+  }
+
+  @Query("SELECT s.orderId AS orderId, s.deadlineAt AS deadlineAt FROM OrderSaga s WHERE s.state NOT IN :states")
+  List<SagaDeadline> findByStateNotIn(@Param("states") List<OrderSaga.SagaState> states);
+}
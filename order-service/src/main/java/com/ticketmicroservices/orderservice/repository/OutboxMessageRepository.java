@@ -0,0 +1,26 @@
+package com.ticketmicroservices.orderservice.repository;
+
+import com.ticketmicroservices.orderservice.entity.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+  // Pooled ids are only ordered within one instance, so messages go out in the order they were
+  // written; one aggregate's next change is never written before its previous one commits
+  List<OutboxMessage> findByOrderByCreatedAtAscIdAsc(Pageable pageable);
+
+  @Modifying
+  @Query("DELETE FROM OutboxMessage m WHERE m.id IN :ids")
+  int deleteByIdIn(@Param("ids") List<Long> ids);
+
+  // Held until the surrounding transaction ends, so only one relay drains the table at a time
+  @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('order_outbox'))", nativeQuery = true)
+  boolean tryLockRelay();
+}
@@ -0,0 +1,121 @@
+package com.ticketmicroservices.orderservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+
+// Checks admission tokens issued by the ticket-service waiting room. The token is
+// "payload.signature" with payload "A:eventId:seq:expiresAtEpochSeconds". When enforced, a
+// token is only required for events whose room ticket-service reports open; the answer is
+// cached briefly so a busy on-sale costs one lookup per event per interval.
+@Component
+public class AdmissionTokenVerifier {
+
+  private static final Logger logger = LoggerFactory.getLogger(AdmissionTokenVerifier.class);
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  @Autowired
+  private TicketServiceClient ticketServiceClient;
+
+  @Value("${order.waiting-room.enforce:false}")
+  private boolean enforce;
+
+  // No default: a key anyone can read in the repository would let anyone mint tokens
+  @Value("${order.waiting-room.secret:}")
+  private String secret;
+
+  @Value("${order.internal.token:}")
+  private String internalToken;
+
+  @Value("${order.waiting-room.room-cache-ms:1000}")
+  private long roomCacheMs;
+
+  private SecretKeySpec key;
+  private Cache<Long, Boolean> openRooms;
+
+  @PostConstruct
+  public void init() {
+    if (!enforce) {
+      return;
+    }
+    if (secret.isBlank()) {
+      throw new IllegalStateException("order.waiting-room.secret (WAITING_ROOM_SECRET) must be set "
+          + "while order.waiting-room.enforce is on");
+    }
+    if (internalToken.isBlank()) {
+      throw new IllegalStateException("order.internal.token (INTERNAL_API_TOKEN) must be set "
+          + "while order.waiting-room.enforce is on, to look up open rooms");
+    }
+    key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    openRooms = Caffeine.newBuilder()
+        .maximumSize(10000)
+        .expireAfterWrite(Duration.ofMillis(roomCacheMs))
+        .build();
+  }
+
+  public boolean isAdmitted(Long eventId, String token) {
+    if (!enforce || eventId == null || !isRoomOpen(eventId)) {
+      return true;
+    }
+    int dot = token == null ? -1 : token.indexOf('.');
+    if (dot < 0) {
+      return false;
+    }
+    try {
+      Base64.Decoder decoder = Base64.getUrlDecoder();
+      String payload = new String(decoder.decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+      if (!MessageDigest.isEqual(mac(payload), decoder.decode(token.substring(dot + 1)))) {
+        return false;
+      }
+      String[] fields = payload.split(":");
+      return fields.length == 4
+          && fields[0].equals("A")
+          && fields[1].equals(eventId.toString())
+          && Long.parseLong(fields[3]) * 1000 > System.currentTimeMillis();
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  // An unanswered lookup counts as open: a buyer holding a token still gets through, and
+  // ticket-service being unreachable must not lift the queue
+  private boolean isRoomOpen(Long eventId) {
+    Boolean open = openRooms.getIfPresent(eventId);
+    if (open != null) {
+      return open;
+    }
+    try {
+      open = ticketServiceClient.isWaitingRoomOpen(eventId);
+    } catch (RestClientException e) {
+      logger.warn("Could not check the waiting room for event {}, requiring a token: {}", eventId, e.getMessage());
+      return true;
+    }
+    openRooms.put(eventId, open);
+    return open;
+  }
+
+  private byte[] mac(String payload) {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot verify admission token", e);
+    }
+  }
+}
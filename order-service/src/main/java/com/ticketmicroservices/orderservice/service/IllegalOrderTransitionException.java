@@ -0,0 +1,11 @@
+package com.ticketmicroservices.orderservice.service;
+
+import com.ticketmicroservices.orderservice.entity.Order;
+
+// The order's current status does not allow the requested change, e.g. confirming a cancelled order
+public class IllegalOrderTransitionException extends RuntimeException {
+
+  public IllegalOrderTransitionException(Long orderId, Order.OrderStatus current, Order.OrderStatus target) {
+    super("Order " + orderId + " cannot go from " + current + " to " + target);
+  }
+}
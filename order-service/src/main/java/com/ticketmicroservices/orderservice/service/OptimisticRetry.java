@@ -0,0 +1,72 @@
+package com.ticketmicroservices.orderservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a read-modify-write in its own transaction and, when the commit loses a version check
+// to a concurrent writer, runs it again against fresh rows. Attempts are bounded and spaced by
+// exponential backoff with full jitter so colliding writers do not retry in lockstep.
+@Component
+public class OptimisticRetry {
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${order.optimistic-retry.max-attempts:5}")
+  private int maxAttempts;
+
+  @Value("${order.optimistic-retry.initial-backoff-ms:10}")
+  private long initialBackoffMs;
+
+  @Value("${order.optimistic-retry.max-backoff-ms:200}")
+  private long maxBackoffMs;
+
+  public <T> T execute(String operation, Supplier<T> action) {
+    // Inside a caller's transaction a retry would only see the same stale persistence context
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return action.get();
+    }
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(status -> action.get());
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= maxAttempts) {
+          counter("order.optimistic.exhausted", operation).increment();
+          throw e;
+        }
+        counter("order.optimistic.retries", operation).increment();
+        if (!backoff(attempt)) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  private boolean backoff(int attempt) {
+    long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 16));
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private Counter counter(String name, String operation) {
+    return meterRegistry.counter(name, "operation", operation);
+  }
+}
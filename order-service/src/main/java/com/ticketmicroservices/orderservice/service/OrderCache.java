@@ -0,0 +1,126 @@
+package com.ticketmicroservices.orderservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ticketmicroservices.orderservice.dto.OrderDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Read-through cache for single orders, polled hard while an order is pending. The local tier is
+// bounded by size and TTL; the optional Redis tier is shared by every instance. Writers evict
+// once their change commits, and every instance evicts again when the ORDER_CONFIRMED or
+// ORDER_CANCELLED event reaches it, which also clears a copy a reader loaded just before the
+// commit. The TTLs bound staleness if an event is lost.
+@Component
+public class OrderCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(OrderCache.class);
+
+  private static final String KEY_PREFIX = "order:";
+
+  @Autowired
+  private StringRedisTemplate redisTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${order.cache.max-entries:100000}")
+  private long maxEntries;
+
+  @Value("${order.cache.ttl-seconds:30}")
+  private long ttlSeconds;
+
+  @Value("${order.cache.redis.enabled:false}")
+  private boolean redisEnabled;
+
+  @Value("${order.cache.redis.ttl-seconds:300}")
+  private long redisTtlSeconds;
+
+  private Cache<Long, OrderDto> cache;
+  private Timer loadTimer;
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders");
+    Gauge.builder("order.cache.hit.ratio", cache, c -> c.stats().hitRate()).register(meterRegistry);
+    loadTimer = Timer.builder("order.cache.load").register(meterRegistry);
+  }
+
+  public OrderDto get(Long id, Supplier<OrderDto> loader) {
+    return cache.get(id, key -> loadTimer.record(() -> load(key, loader)));
+  }
+
+  // Until the writer commits, a reload would only read the old row again
+  public void evictAfterCommit(Long id) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      evict(id);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        evict(id);
+      }
+    });
+  }
+
+  public void evict(Long id) {
+    cache.invalidate(id);
+    if (redisEnabled) {
+      try {
+        redisTemplate.delete(KEY_PREFIX + id);
+      } catch (RuntimeException e) {
+        logger.warn("Could not evict order {} from Redis: {}", id, e.getMessage());
+      }
+    }
+  }
+
+  private OrderDto load(Long id, Supplier<OrderDto> loader) {
+    if (!redisEnabled) {
+      return loader.get();
+    }
+
+    // Redis trouble only costs the shared tier; the database still answers
+    try {
+      String cached = redisTemplate.opsForValue().get(KEY_PREFIX + id);
+      if (cached != null) {
+        return objectMapper.readValue(cached, OrderDto.class);
+      }
+    } catch (RuntimeException | JsonProcessingException e) {
+      logger.warn("Could not read order {} from Redis: {}", id, e.getMessage());
+    }
+
+    OrderDto order = loader.get();
+    try {
+      redisTemplate.opsForValue().set(KEY_PREFIX + id, objectMapper.writeValueAsString(order),
+          Duration.ofSeconds(redisTtlSeconds));
+    } catch (RuntimeException | JsonProcessingException e) {
+      logger.warn("Could not write order {} to Redis: {}", id, e.getMessage());
+    }
+    return order;
+  }
+}
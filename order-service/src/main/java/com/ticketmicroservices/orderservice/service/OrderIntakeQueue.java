@@ -0,0 +1,156 @@
+package com.ticketmicroservices.orderservice.service;
+
+import com.ticketmicroservices.orderservice.dto.CreateOrderRequest;
+import com.ticketmicroservices.orderservice.dto.OrderDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+// On-sale intake: requests wait on a bounded ring and a single writer commits whatever has
+// queued up as one transaction, so a burst costs one commit per batch rather than per order.
+// A caller's future completes only after its batch has committed, so an accepted order is
+// already durable.
+@Service
+public class OrderIntakeQueue {
+
+  private static final Logger logger = LoggerFactory.getLogger(OrderIntakeQueue.class);
+
+  private static final String SHUTTING_DOWN = "Order intake is shutting down, please retry";
+
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${order.intake.enabled:false}")
+  private boolean enabled;
+
+  @Value("${order.intake.queue-capacity:10000}")
+  private int queueCapacity;
+
+  @Value("${order.intake.max-batch-size:256}")
+  private int maxBatchSize;
+
+  @Value("${order.intake.shutdown-timeout-ms:5000}")
+  private long shutdownTimeoutMs;
+
+  private BlockingQueue<PendingOrder> queue;
+  private DistributionSummary batchSizes;
+  private Thread writer;
+  private volatile boolean stopping;
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    queue = new ArrayBlockingQueue<>(queueCapacity);
+    Gauge.builder("order.intake.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+    batchSizes = DistributionSummary.builder("order.intake.batch.size").register(meterRegistry);
+    writer = new Thread(this::drain, "order-intake-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  // Lets the batch in flight commit, then fails whatever is still queued so callers are not
+  // left waiting on futures the writer will never complete
+  @PreDestroy
+  public void stop() {
+    if (writer == null) {
+      return;
+    }
+    stopping = true;
+    writer.interrupt();
+    try {
+      writer.join(shutdownTimeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<PendingOrder> queued = new ArrayList<>();
+    queue.drainTo(queued);
+    if (!queued.isEmpty()) {
+      logger.warn("Failing {} queued orders at shutdown", queued.size());
+    }
+    queued.forEach(pending -> pending.result.completeExceptionally(new OrderIntakeUnavailableException(SHUTTING_DOWN)));
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public CompletableFuture<OrderDto> submit(CreateOrderRequest request) {
+    PendingOrder pending = new PendingOrder(request);
+    if (stopping || !queue.offer(pending)) {
+      return CompletableFuture.failedFuture(new OrderIntakeUnavailableException(stopping
+          ? SHUTTING_DOWN : "Order intake queue is full, please retry"));
+    }
+    // Lost a race with stop(): it may already have drained the queue
+    if (stopping && queue.remove(pending)) {
+      pending.result.completeExceptionally(new OrderIntakeUnavailableException(SHUTTING_DOWN));
+    }
+    return pending.result;
+  }
+
+  private void drain() {
+    List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        return;
+      }
+      queue.drainTo(batch, maxBatchSize - 1);
+      batchSizes.record(batch.size());
+      commit(batch);
+      batch.clear();
+    }
+  }
+
+  private void commit(List<PendingOrder> batch) {
+    List<CreateOrderRequest> requests = new ArrayList<>(batch.size());
+    batch.forEach(pending -> requests.add(pending.request));
+
+    List<OrderDto> orders;
+    try {
+      orders = orderService.createOrders(requests);
+    } catch (RuntimeException e) {
+      if (batch.size() == 1) {
+        batch.get(0).result.completeExceptionally(e);
+        return;
+      }
+      // One bad order must not sink the rest, so fall back to committing them one by one
+      logger.warn("Order batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+      for (PendingOrder pending : batch) {
+        commit(List.of(pending));
+      }
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).result.complete(orders.get(i));
+    }
+  }
+
+  private static class PendingOrder {
+    private final CreateOrderRequest request;
+    private final CompletableFuture<OrderDto> result = new CompletableFuture<>();
+
+    PendingOrder(CreateOrderRequest request) {
+      this.request = request;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.ticketmicroservices.orderservice.service;
+
+// The intake queue cannot take the order right now: it is full or the service is stopping
+public class OrderIntakeUnavailableException extends RuntimeException {
+
+  public OrderIntakeUnavailableException(String message) {
+    super(message);
+  }
+}
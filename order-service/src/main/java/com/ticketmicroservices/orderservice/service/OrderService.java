@@ -1,25 +1,58 @@
 package com.ticketmicroservices.orderservice.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.orderservice.config.ReplicaRoutingDataSource;
 import com.ticketmicroservices.orderservice.dto.CreateOrderRequest;
+import com.ticketmicroservices.orderservice.dto.CursorPageDto;
 import com.ticketmicroservices.orderservice.dto.OrderDto;
 import com.ticketmicroservices.orderservice.entity.Order;
+import com.ticketmicroservices.orderservice.entity.OrderSaga;
 import com.ticketmicroservices.orderservice.repository.OrderRepository;
+import com.ticketmicroservices.orderservice.repository.OrderSagaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class OrderService {
 
+  private static final int MAX_PAGE_SIZE = 500;
+
   @Autowired
   private OrderRepository orderRepository;
 
   @Autowired
-  private KafkaTemplate<String, String> kafkaTemplate;
+  private OutboxPublisher outboxPublisher;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private OrderSagaRepository orderSagaRepository;
+
+  @Autowired
+  private SagaTimeoutWheel sagaTimeoutWheel;
+
+  @Autowired
+  private OrderCache orderCache;
 
+  @Value("${order.saga.timeout-seconds:300}")
+  private long sagaTimeoutSeconds;
+
+  @Transactional
   public OrderDto createOrder(CreateOrderRequest request) {
     Order order = new Order(
         request.getUserId(),
@@ -29,49 +62,126 @@ public class OrderService {
 
     order = orderRepository.save(order);
 
+    // The saga drives the order on to CONFIRMED or CANCELLED from here
+    LocalDateTime deadline = LocalDateTime.now().plusSeconds(sagaTimeoutSeconds);
+    orderSagaRepository.save(new OrderSaga(order.getId(), order.getEventId(), deadline));
+    sagaTimeoutWheel.scheduleAfterCommit(order.getId(), SagaOrchestrator.toEpochMillis(deadline));
+
     // Send order created event
-    kafkaTemplate.send("order-events", "ORDER_CREATED", order.getId().toString());
+    outboxPublisher.publish("order-events", order.getId().toString(), "ORDER_CREATED",
+        toEventJson("ORDER_CREATED", order));
 
     return convertToDto(order);
   }
 
+  // One transaction for the whole batch, so it costs a single commit
+  @Transactional
+  public List<OrderDto> createOrders(List<CreateOrderRequest> requests) {
+    return requests.stream().map(this::createOrder).collect(Collectors.toList());
+  }
+
+  // A cache hit needs no transaction; findById opens its own read-only one on a miss. A miss
+  // reads the primary: a lagging replica could still return an order as PENDING after its
+  // confirm committed and evicted it, and that copy would stay cached until the TTL.
   public OrderDto getOrderById(Long id) {
-    Order order = orderRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("Order not found"));
-    return convertToDto(order);
+    return orderCache.get(id, () -> ReplicaRoutingDataSource.onPrimary(() -> orderRepository.findById(id)
+        .map(this::convertToDto)
+        .orElseThrow(() -> new RuntimeException("Order not found"))));
   }
 
+  @Transactional(readOnly = true)
   public List<OrderDto> getOrdersByUser(Long userId) {
     List<Order> orders = orderRepository.findByUserId(userId);
     return orders.stream().map(this::convertToDto).collect(Collectors.toList());
   }
 
-  public OrderDto confirmOrder(Long id) {
-    Order order = orderRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("Order not found"));
-
-    order.setStatus(Order.OrderStatus.CONFIRMED);
-    order = orderRepository.save(order);
+  @Transactional(readOnly = true)
+  public CursorPageDto<OrderDto> getOrderPageByUser(Long userId, Long cursor, int limit) {
+    int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    List<OrderRepository.OrderView> orders = orderRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+        userId, cursor == null ? Long.MAX_VALUE : cursor, PageRequest.of(0, pageSize + 1));
+
+    // One row past the page tells whether another page exists
+    boolean hasMore = orders.size() > pageSize;
+    List<OrderDto> items = orders.stream()
+        .limit(pageSize)
+        .map(this::convertToDto)
+        .collect(Collectors.toList());
+    Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+    return new CursorPageDto<>(items, nextCursor);
+  }
 
-    // Send order confirmed event
-    kafkaTemplate.send("order-events", "ORDER_CONFIRMED", order.getId().toString());
+  // Writes the user's orders as newline-delimited JSON straight from a database cursor
+  @Transactional(readOnly = true)
+  public void streamOrdersByUser(Long userId, OutputStream out) throws IOException {
+    try (Stream<OrderRepository.OrderView> orders = orderRepository.streamByUserIdOrderByIdDesc(userId)) {
+      Iterator<OrderRepository.OrderView> it = orders.iterator();
+      while (it.hasNext()) {
+        out.write(objectMapper.writeValueAsBytes(convertToDto(it.next())));
+        out.write('\n');
+      }
+    }
+    out.flush();
+  }
 
-    return convertToDto(order);
+  @Transactional
+  public OrderDto confirmOrder(Long id) {
+    return transition(id, Order.OrderStatus.CONFIRMED, "ORDER_CONFIRMED");
   }
 
+  @Transactional
   public OrderDto cancelOrder(Long id) {
-    Order order = orderRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("Order not found"));
-
-    order.setStatus(Order.OrderStatus.CANCELLED);
-    order = orderRepository.save(order);
+    return transition(id, Order.OrderStatus.CANCELLED, "ORDER_CANCELLED");
+  }
 
-    // Send order cancelled event
-    kafkaTemplate.send("order-events", "ORDER_CANCELLED", order.getId().toString());
+  // One conditional UPDATE ... RETURNING decides the transition, so a concurrent confirm and
+  // cancel cannot both win and no lock or retry is needed
+  private OrderDto transition(Long id, Order.OrderStatus target, String eventType) {
+    Order order = orderRepository.transitionStatus(id, target.name(), Order.OrderStatus.sourcesOf(target),
+        LocalDateTime.now()).orElse(null);
+    if (order == null) {
+      Order current = orderRepository.findById(id)
+          .orElseThrow(() -> new RuntimeException("Order not found"));
+      if (current.getStatus() == target) {
+        // Already there; the change was announced the first time
+        return convertToDto(current);
+      }
+      throw new IllegalOrderTransitionException(id, current.getStatus(), target);
+    }
+
+    // Send order status event
+    outboxPublisher.publish("order-events", order.getId().toString(), eventType, toEventJson(eventType, order));
+    orderCache.evictAfterCommit(id);
 
     return convertToDto(order);
   }
 
+  // payment-service charges `amount` on ORDER_CREATED; notification-service addresses `userId`
+  private String toEventJson(String type, Order order) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("type", type);
+    payload.put("orderId", order.getId());
+    payload.put("userId", order.getUserId());
+    payload.put("eventId", order.getEventId());
+    payload.put("amount", order.getTotalAmount());
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize order event", e);
+    }
+  }
+
+  private OrderDto convertToDto(OrderRepository.OrderView order) {
+    return new OrderDto(
+        order.getId(),
+        order.getUserId(),
+        order.getEventId(),
+        order.getTotalAmount(),
+        order.getTicketQuantity(),
+        order.getStatus().toString(),
+        order.getCreatedAt().toString());
+  }
+
   private OrderDto convertToDto(Order order) {
     return new OrderDto(
         order.getId(),
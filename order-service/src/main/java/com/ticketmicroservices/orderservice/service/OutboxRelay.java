@@ -0,0 +1,113 @@
+package com.ticketmicroservices.orderservice.service;
+
+import com.ticketmicroservices.orderservice.entity.OutboxMessage;
+import com.ticketmicroservices.orderservice.repository.OutboxMessageRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+// Drains the outbox to Kafka in id order. A batch is deleted only after every send in it has
+// been acknowledged, so a failure leaves the batch in place to be sent again (at-least-once).
+@Component
+public class OutboxRelay {
+
+  // Carries the event type; the record key is the id of the aggregate the event is about
+  public static final String EVENT_TYPE_HEADER = "event-type";
+
+  private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+  @Autowired
+  private OutboxMessageRepository outboxMessageRepository;
+
+  @Autowired
+  private KafkaTemplate<String, String> kafkaTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Value("${order.outbox.batch-size:500}")
+  private int batchSize;
+
+  @Value("${order.outbox.send-timeout-ms:10000}")
+  private long sendTimeoutMs;
+
+  @Value("${order.outbox.retry-delay-ms:5000}")
+  private long retryDelayMs;
+
+  private long retryAfter;
+
+  @Scheduled(fixedDelayString = "${order.outbox.relay-interval-ms:200}")
+  public void relay() {
+    if (System.currentTimeMillis() < retryAfter) {
+      return;
+    }
+    try {
+      Integer sent;
+      do {
+        sent = transactionTemplate.execute(status -> relayBatch());
+      } while (sent != null && sent == batchSize);
+    } catch (RuntimeException e) {
+      // Kafka is unreachable; back off instead of retrying every tick
+      retryAfter = System.currentTimeMillis() + retryDelayMs;
+      logger.warn("Outbox relay stopped, retrying in {} ms: {}", retryDelayMs, e.getMessage());
+    }
+  }
+
+  // Records relayed before the header existed carry the type as their key
+  public static String eventTypeOf(ConsumerRecord<String, String> record) {
+    Header header = record.headers().lastHeader(EVENT_TYPE_HEADER);
+    return header == null ? record.key() : new String(header.value(), StandardCharsets.UTF_8);
+  }
+
+  private int relayBatch() {
+    if (!outboxMessageRepository.tryLockRelay()) {
+      return 0;
+    }
+    List<OutboxMessage> batch = outboxMessageRepository.findByOrderByCreatedAtAscIdAsc(PageRequest.of(0, batchSize));
+    if (batch.isEmpty()) {
+      return 0;
+    }
+
+    List<ListenableFuture<SendResult<String, String>>> sends = new ArrayList<>(batch.size());
+    for (OutboxMessage message : batch) {
+      ProducerRecord<String, String> record =
+          new ProducerRecord<>(message.getTopic(), message.getMessageKey(), message.getPayload());
+      record.headers().add(EVENT_TYPE_HEADER, message.getEventType().getBytes(StandardCharsets.UTF_8));
+      sends.add(kafkaTemplate.send(record));
+    }
+    kafkaTemplate.flush();
+
+    for (ListenableFuture<SendResult<String, String>> send : sends) {
+      try {
+        send.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while relaying outbox", e);
+      } catch (ExecutionException | TimeoutException e) {
+        throw new RuntimeException("Failed to relay outbox batch", e);
+      }
+    }
+
+    outboxMessageRepository.deleteByIdIn(batch.stream().map(OutboxMessage::getId).collect(Collectors.toList()));
+    return batch.size();
+  }
+}
@@ -0,0 +1,286 @@
+package com.ticketmicroservices.orderservice.service;
+
+import com.ticketmicroservices.orderservice.entity.OrderSaga;
+import com.ticketmicroservices.orderservice.entity.OrderSaga.SagaState;
+import com.ticketmicroservices.orderservice.repository.OrderSagaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+// Drives each order through reserve -> pay -> confirm. Ticket and payment events arrive in
+// either order and each one moves the persisted saga row forward under its version check, so
+// duplicates and late arrivals fall through as no-ops. No thread waits on a saga: a waiting
+// saga is just a row plus an entry in the timeout wheel.
+//
+// Steps that call ticket-service first commit CONFIRMING or COMPENSATING with a short retry
+// deadline, then make the call, then commit the terminal state. A call that fails, or a crash
+// in between, leaves the step in place for the wheel to run again.
+//
+// Events are applied to the saga row on the Kafka consumer thread; the ticket-service calls
+// that follow run on the saga worker pool, so a slow ticket-service never stalls consumption.
+@Service
+public class SagaOrchestrator {
+
+  private static final Logger logger = LoggerFactory.getLogger(SagaOrchestrator.class);
+
+  @Autowired
+  private OrderSagaRepository orderSagaRepository;
+
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private TicketServiceClient ticketServiceClient;
+
+  @Autowired
+  private SagaTimeoutWheel sagaTimeoutWheel;
+
+  @Autowired
+  private OptimisticRetry optimisticRetry;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${order.saga.step-retry-ms:5000}")
+  private long stepRetryMs;
+
+  @Value("${order.saga.workers:8}")
+  private int workers;
+
+  private ExecutorService workerPool;
+
+  @PostConstruct
+  public void init() {
+    workerPool = Executors.newFixedThreadPool(workers);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workerPool.shutdown();
+  }
+
+  public void onTicketsReserved(Long orderId) {
+    OrderSaga saga = advance(orderId, "ticketsReserved", current -> {
+      switch (current.getState()) {
+        case STARTED:
+          return SagaState.TICKETS_RESERVED;
+        case PAYMENT_RECEIVED:
+          return SagaState.CONFIRMING;
+        default:
+          return null;
+      }
+    });
+    if (saga != null && saga.getState() == SagaState.CONFIRMING) {
+      runStep(orderId, () -> confirm(saga));
+    }
+  }
+
+  public void onPaymentSucceeded(Long orderId) {
+    OrderSaga saga = advance(orderId, "paymentSucceeded", current -> {
+      switch (current.getState()) {
+        case STARTED:
+          return SagaState.PAYMENT_RECEIVED;
+        case TICKETS_RESERVED:
+          return SagaState.CONFIRMING;
+        default:
+          return null;
+      }
+    });
+    if (saga != null && saga.getState() == SagaState.CONFIRMING) {
+      runStep(orderId, () -> confirm(saga));
+    }
+  }
+
+  public void onPaymentFailed(Long orderId) {
+    startCompensation(orderId, "payment_failed");
+  }
+
+  // The hold was cancelled or expired on the ticket side before the saga confirmed it
+  public void onTicketsReleased(Long orderId) {
+    startCompensation(orderId, "tickets_released");
+  }
+
+  // A waiting saga ran out of time; a step in progress is run again
+  public void onDeadline(Long orderId) {
+    runStep(orderId, () -> expire(orderId));
+  }
+
+  private void expire(Long orderId) {
+    SagaState[] previous = new SagaState[1];
+    OrderSaga saga = advance(orderId, "deadline", current -> {
+      previous[0] = current.getState();
+      switch (current.getState()) {
+        case STARTED:
+        case TICKETS_RESERVED:
+        case PAYMENT_RECEIVED:
+          return SagaState.COMPENSATING;
+        case CONFIRMING:
+        case COMPENSATING:
+          return current.getState();
+        default:
+          return null;
+      }
+    });
+    if (saga == null) {
+      return;
+    }
+    if (saga.getState() == SagaState.CONFIRMING) {
+      confirm(saga);
+    } else if (previous[0] == SagaState.COMPENSATING) {
+      compensate(saga, "retry");
+    } else {
+      logger.info("Saga for order {} timed out in {}", orderId, previous[0]);
+      compensate(saga, "timeout");
+    }
+  }
+
+  private void startCompensation(Long orderId, String reason) {
+    OrderSaga saga = advance(orderId, "compensate", current -> {
+      switch (current.getState()) {
+        case STARTED:
+        case TICKETS_RESERVED:
+          return SagaState.COMPENSATING;
+        case PAYMENT_RECEIVED:
+          // Nothing in the system issues refunds yet, so make the charge visible
+          logger.warn("Order {} was paid but is being cancelled ({}); payment needs a refund", orderId, reason);
+          return SagaState.COMPENSATING;
+        default:
+          return null;
+      }
+    });
+    if (saga != null) {
+      runStep(orderId, () -> compensate(saga, reason));
+    }
+  }
+
+  // The saga row already records the step and its deadline, so a step that fails or never
+  // starts is run again by the wheel, or by recovery after a restart
+  private void runStep(Long orderId, Runnable step) {
+    try {
+      workerPool.execute(() -> {
+        try {
+          step.run();
+        } catch (RuntimeException e) {
+          logger.error("Saga step for order {} failed: {}", orderId, e.getMessage(), e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      logger.warn("Saga step for order {} not started, the service is shutting down", orderId);
+    }
+  }
+
+  private void confirm(OrderSaga saga) {
+    int sold;
+    try {
+      sold = ticketServiceClient.confirmTickets(saga.getOrderId(), saga.getEventId());
+    } catch (RestClientException e) {
+      logger.warn("Confirming tickets for order {} failed, retrying in {} ms: {}",
+          saga.getOrderId(), stepRetryMs, e.getMessage());
+      return;
+    }
+
+    if (sold == 0) {
+      // The hold lapsed before payment came through
+      logger.warn("Order {} was paid but its ticket hold is gone; payment needs a refund", saga.getOrderId());
+      abandonConfirmation(saga.getOrderId(), "hold_lost");
+      return;
+    }
+
+    boolean completed;
+    try {
+      completed = finish(saga.getOrderId(), SagaState.CONFIRMING, SagaState.COMPLETED,
+          () -> orderService.confirmOrder(saga.getOrderId()));
+    } catch (IllegalOrderTransitionException e) {
+      // The order was cancelled while its tickets were being confirmed, so the seats go back
+      logger.warn("Order {} was paid but can no longer be confirmed ({}); payment needs a refund",
+          saga.getOrderId(), e.getMessage());
+      abandonConfirmation(saga.getOrderId(), "order_cancelled");
+      return;
+    }
+    if (completed) {
+      meterRegistry.counter("order.saga.completed").increment();
+    }
+  }
+
+  private void abandonConfirmation(Long orderId, String reason) {
+    OrderSaga compensating = advance(orderId, "abandonConfirmation",
+        current -> current.getState() == SagaState.CONFIRMING ? SagaState.COMPENSATING : null);
+    if (compensating != null) {
+      compensate(compensating, reason);
+    }
+  }
+
+  private void compensate(OrderSaga saga, String reason) {
+    try {
+      ticketServiceClient.cancelTickets(saga.getOrderId(), saga.getEventId());
+    } catch (RestClientException e) {
+      logger.warn("Cancelling tickets for order {} failed, retrying in {} ms: {}",
+          saga.getOrderId(), stepRetryMs, e.getMessage());
+      return;
+    }
+
+    if (finish(saga.getOrderId(), SagaState.COMPENSATING, SagaState.COMPENSATED,
+        () -> orderService.cancelOrder(saga.getOrderId()))) {
+      meterRegistry.counter("order.saga.compensated", "reason", reason).increment();
+    }
+  }
+
+  // Applies the transition chosen by `next` (null leaves the saga alone) and arms the deadline
+  // for the new state. Returns the updated saga, or null when nothing changed.
+  private OrderSaga advance(Long orderId, String operation, Function<OrderSaga, SagaState> next) {
+    return optimisticRetry.execute("saga." + operation, () -> {
+      OrderSaga saga = orderSagaRepository.findById(orderId).orElse(null);
+      if (saga == null || saga.getState().isTerminal()) {
+        return null;
+      }
+      SagaState state = next.apply(saga);
+      if (state == null) {
+        return null;
+      }
+
+      LocalDateTime now = LocalDateTime.now();
+      saga.setState(state);
+      saga.setUpdatedAt(now);
+      if (state == SagaState.CONFIRMING || state == SagaState.COMPENSATING) {
+        saga.setDeadlineAt(now.plus(Duration.ofMillis(stepRetryMs)));
+      }
+      saga = orderSagaRepository.save(saga);
+      sagaTimeoutWheel.scheduleAfterCommit(orderId, toEpochMillis(saga.getDeadlineAt()));
+      return saga;
+    });
+  }
+
+  // Commits the order change together with the terminal state, so it happens exactly once
+  private boolean finish(Long orderId, SagaState from, SagaState to, Runnable orderChange) {
+    return optimisticRetry.execute("saga.finish", () -> {
+      OrderSaga saga = orderSagaRepository.findById(orderId).orElse(null);
+      if (saga == null || saga.getState() != from) {
+        return false;
+      }
+      orderChange.run();
+      saga.setState(to);
+      saga.setUpdatedAt(LocalDateTime.now());
+      orderSagaRepository.save(saga);
+      sagaTimeoutWheel.cancelAfterCommit(orderId);
+      return true;
+    });
+  }
+
+  static long toEpochMillis(LocalDateTime time) {
+    return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+}
@@ -0,0 +1,60 @@
+package com.ticketmicroservices.orderservice.service;
+
+import com.ticketmicroservices.orderservice.entity.OrderSaga;
+import com.ticketmicroservices.orderservice.repository.OrderSagaRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+
+@Component
+public class SagaTimeoutScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(SagaTimeoutScheduler.class);
+
+  @Autowired
+  private SagaTimeoutWheel sagaTimeoutWheel;
+
+  @Autowired
+  private SagaOrchestrator sagaOrchestrator;
+
+  @Autowired
+  private OrderSagaRepository orderSagaRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @PostConstruct
+  public void init() {
+    Gauge.builder("order.saga.in-flight", sagaTimeoutWheel, SagaTimeoutWheel::getOutstandingTimeouts)
+        .register(meterRegistry);
+  }
+
+  // Every saga that has not finished holds a deadline, so reloading those rebuilds the wheel
+  @EventListener(ApplicationReadyEvent.class)
+  public void recoverSagas() {
+    List<OrderSagaRepository.SagaDeadline> sagas = orderSagaRepository.findByStateNotIn(
+        Arrays.asList(OrderSaga.SagaState.COMPLETED, OrderSaga.SagaState.COMPENSATED));
+    for (OrderSagaRepository.SagaDeadline saga : sagas) {
+      sagaTimeoutWheel.schedule(saga.getOrderId(), SagaOrchestrator.toEpochMillis(saga.getDeadlineAt()));
+    }
+    logger.info("Recovered {} in-flight order sagas", sagas.size());
+  }
+
+  // Expired sagas call ticket-service, so the orchestrator runs them off the ticker thread
+  @Scheduled(fixedRateString = "${order.saga.tick-ms:1000}")
+  public void expireSagas() {
+    for (Long orderId : sagaTimeoutWheel.advance(System.currentTimeMillis())) {
+      sagaOrchestrator.onDeadline(orderId);
+    }
+  }
+}
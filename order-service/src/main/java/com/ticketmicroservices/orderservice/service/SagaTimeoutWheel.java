@@ -0,0 +1,138 @@
+package com.ticketmicroservices.orderservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+// Hashed timing wheel holding one deadline per in-flight saga.
+// Scheduling and cancelling are O(1) from any thread; only the ticker thread calling
+// advance() touches the buckets, so waiting sagas cost nothing until their slot comes up.
+@Component
+public class SagaTimeoutWheel {
+
+  private final long tickMs;
+  private final int mask;
+  private final Queue<Timeout>[] buckets;
+  private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+  private final ConcurrentMap<Long, Timeout> timeoutsByOrder = new ConcurrentHashMap<>();
+  private long currentTick = -1;
+
+  @SuppressWarnings("unchecked")
+  public SagaTimeoutWheel(@Value("${order.saga.tick-ms:1000}") long tickMs,
+      @Value("${order.saga.wheel-size:512}") int wheelSize) {
+    int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+    this.tickMs = tickMs;
+    this.mask = size - 1;
+    this.buckets = new Queue[size];
+    for (int i = 0; i < size; i++) {
+      buckets[i] = new ArrayDeque<>();
+    }
+  }
+
+  public int getOutstandingTimeouts() {
+    return timeoutsByOrder.size();
+  }
+
+  // Replaces any deadline the order already had
+  public void schedule(Long orderId, long deadlineMillis) {
+    Timeout timeout = new Timeout(orderId, deadlineMillis);
+    Timeout previous = timeoutsByOrder.put(orderId, timeout);
+    if (previous != null) {
+      previous.cancelled = true;
+    }
+    pending.offer(timeout);
+  }
+
+  public void cancel(Long orderId) {
+    Timeout timeout = timeoutsByOrder.remove(orderId);
+    if (timeout != null) {
+      timeout.cancelled = true;
+    }
+  }
+
+  // A deadline only exists once the state it guards has committed
+  public void scheduleAfterCommit(Long orderId, long deadlineMillis) {
+    runAfterCommit(() -> schedule(orderId, deadlineMillis));
+  }
+
+  public void cancelAfterCommit(Long orderId) {
+    runAfterCommit(() -> cancel(orderId));
+  }
+
+  // Moves the wheel up to `nowMillis` and returns the orders whose deadline has passed.
+  // Must only be called from a single thread.
+  public List<Long> advance(long nowMillis) {
+    long targetTick = nowMillis / tickMs;
+    if (currentTick < 0) {
+      currentTick = targetTick;
+    }
+
+    List<Long> expired = new ArrayList<>();
+    while (currentTick <= targetTick) {
+      transferPending();
+      Iterator<Timeout> it = buckets[(int) (currentTick & mask)].iterator();
+      while (it.hasNext()) {
+        Timeout timeout = it.next();
+        if (timeout.cancelled) {
+          it.remove();
+        } else if (timeout.remainingRounds > 0) {
+          timeout.remainingRounds--;
+        } else {
+          it.remove();
+          if (timeoutsByOrder.remove(timeout.orderId, timeout)) {
+            expired.add(timeout.orderId);
+          }
+        }
+      }
+      currentTick++;
+    }
+    return expired;
+  }
+
+  private void transferPending() {
+    Timeout timeout;
+    while ((timeout = pending.poll()) != null) {
+      if (timeout.cancelled) {
+        continue;
+      }
+      long deadlineTick = Math.max(timeout.deadlineMillis / tickMs, currentTick);
+      timeout.remainingRounds = (deadlineTick - currentTick) / buckets.length;
+      buckets[(int) (deadlineTick & mask)].add(timeout);
+    }
+  }
+
+  private void runAfterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private static class Timeout {
+    private final Long orderId;
+    private final long deadlineMillis;
+    private long remainingRounds;
+    private volatile boolean cancelled;
+
+    Timeout(Long orderId, long deadlineMillis) {
+      this.orderId = orderId;
+      this.deadlineMillis = deadlineMillis;
+    }
+  }
+}
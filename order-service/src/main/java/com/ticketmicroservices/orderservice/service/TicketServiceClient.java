@@ -0,0 +1,64 @@
+package com.ticketmicroservices.orderservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.List;
+
+// Calls into ticket-service. The saga steps are idempotent on the ticket side, so a step
+// interrupted after the call but before its state committed can simply be run again.
+@Component
+public class TicketServiceClient {
+
+  @Autowired
+  private RestTemplateBuilder restTemplateBuilder;
+
+  @Value("${order.saga.ticket-service-url:http://localhost:8080}")
+  private String ticketServiceUrl;
+
+  @Value("${order.saga.request-timeout-ms:5000}")
+  private long requestTimeoutMs;
+
+  @Value("${order.internal.token:}")
+  private String internalToken;
+
+  private RestTemplate restTemplate;
+
+  @PostConstruct
+  public void init() {
+    restTemplate = restTemplateBuilder
+        .rootUri(ticketServiceUrl)
+        .setConnectTimeout(Duration.ofMillis(requestTimeoutMs))
+        .setReadTimeout(Duration.ofMillis(requestTimeoutMs))
+        .defaultHeader("X-Internal-Token", internalToken)
+        .build();
+  }
+
+  // Returns how many seats the order has sold; zero means the hold had already been released,
+  // which ticket-service answers with 409
+  public int confirmTickets(Long orderId, Long eventId) {
+    try {
+      List<?> tickets = restTemplate.exchange("/api/tickets/confirm/{orderId}?eventId={eventId}",
+          HttpMethod.PUT, null, List.class, orderId, eventId).getBody();
+      return tickets == null ? 0 : tickets.size();
+    } catch (HttpClientErrorException.Conflict e) {
+      return 0;
+    }
+  }
+
+  public void cancelTickets(Long orderId, Long eventId) {
+    restTemplate.put("/api/tickets/cancel/{orderId}?eventId={eventId}", null, orderId, eventId);
+  }
+
+  public boolean isWaitingRoomOpen(Long eventId) {
+    return Boolean.TRUE.equals(restTemplate.getForObject("/internal/waiting-room/{eventId}/open",
+        Boolean.class, eventId));
+  }
+}
@@ -0,0 +1,21 @@
+-- Order service schema as it stood when Hibernate's ddl-auto=update still managed it.
+-- IF NOT EXISTS lets the script run against a database update already built.
+
+CREATE TABLE IF NOT EXISTS orders (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  user_id bigint NOT NULL,
+  event_id bigint NOT NULL,
+  total_amount double precision NOT NULL,
+  ticket_quantity integer NOT NULL,
+  status varchar(255),
+  created_at timestamp,
+  updated_at timestamp
+);
+
+CREATE TABLE IF NOT EXISTS order_outbox (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  topic varchar(255) NOT NULL,
+  message_key varchar(255) NOT NULL,
+  payload text NOT NULL,
+  created_at timestamp NOT NULL
+);
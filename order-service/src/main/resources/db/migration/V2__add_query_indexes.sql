@@ -0,0 +1,5 @@
+-- A user's orders, including their keyset pages ordered by id
+CREATE INDEX IF NOT EXISTS idx_orders_user_id ON orders (user_id, id);
+
+-- Orders of an event
+CREATE INDEX IF NOT EXISTS idx_orders_event_id ON orders (event_id);
@@ -0,0 +1,14 @@
+-- One row per order tracking where its reserve -> pay -> confirm saga stands.
+-- Rows in a terminal state are kept for inspection; the partial index covers only the
+-- in-flight ones that are reloaded into the timeout wheel on startup.
+CREATE TABLE IF NOT EXISTS order_sagas (
+  order_id bigint PRIMARY KEY,
+  event_id bigint NOT NULL,
+  state varchar(32) NOT NULL,
+  deadline_at timestamp NOT NULL,
+  updated_at timestamp NOT NULL,
+  version bigint NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_order_sagas_in_flight ON order_sagas (deadline_at)
+  WHERE state NOT IN ('COMPLETED', 'COMPENSATED');
@@ -0,0 +1,3 @@
+-- Order ids now come from SnowflakeIdGenerator. The identity stays on order_outbox, whose
+-- relay depends on insert order.
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
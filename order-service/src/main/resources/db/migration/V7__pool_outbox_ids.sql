@@ -0,0 +1,8 @@
+-- Outbox ids come from a sequence Hibernate draws 50 at a time, so a batch of orders can
+-- insert its messages in one JDBC batch. Ids are no longer in commit order across instances,
+-- so the relay reads in created_at order and uses the id only to break ties.
+ALTER TABLE order_outbox ALTER COLUMN id DROP IDENTITY IF EXISTS;
+CREATE SEQUENCE IF NOT EXISTS order_outbox_id_seq INCREMENT BY 50;
+SELECT setval('order_outbox_id_seq', COALESCE(MAX(id), 0) + 50) FROM order_outbox;
+
+CREATE INDEX IF NOT EXISTS idx_order_outbox_created_at ON order_outbox (created_at, id);
@@ -0,0 +1,194 @@
+package com.ticketmicroservices.orderservice.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.connections.spi.JdbcConnectionAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The generator runs against a clock the test moves by hand, so bursts, a clock stepping back
+// and a restart behind the stored ids can be replayed exactly
+class SnowflakeIdGeneratorTest {
+
+  private static final long NODE = 7;
+  private static final long SEQUENCE_PER_SECOND = 1L << 14;
+  private static final long EPOCH_MILLIS = 1704067200000L;
+  private static final long START = EPOCH_MILLIS + 1_000_000_000L;
+
+  private final AtomicLong clock = new AtomicLong(START);
+
+  @Test
+  void idsAreUniqueAcrossThreadsAndCarryTheNode() throws Exception {
+    SnowflakeIdGenerator generator = generator();
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<Long>>> batches = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        Callable<List<Long>> batch = () -> {
+          List<Long> ids = new ArrayList<>();
+          for (int i = 0; i < 20000; i++) {
+            ids.add(generator.nextId());
+            if (i % 1000 == 0) {
+              clock.addAndGet(100);
+            }
+          }
+          return ids;
+        };
+        batches.add(pool.submit(batch));
+      }
+
+      Set<Long> seen = new HashSet<>();
+      for (Future<List<Long>> batch : batches) {
+        for (Long id : batch.get()) {
+          assertTrue(seen.add(id), "duplicate id " + id);
+          assertEquals(NODE, nodeOf(id));
+        }
+      }
+      assertEquals(80000, seen.size());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void idsIncreaseAndFollowTheClock() {
+    SnowflakeIdGenerator generator = generator();
+    long previous = generator.nextId();
+    for (int i = 0; i < 5000; i++) {
+      if (i % 50 == 0) {
+        clock.addAndGet(250);
+      }
+      long id = generator.nextId();
+      assertTrue(id > previous, id + " after " + previous);
+      previous = id;
+    }
+    assertEquals((START - EPOCH_MILLIS) / 1000 + 25, secondsOf(previous));
+  }
+
+  @Test
+  void aBurstPastTheSequenceCarriesIntoTheNextSecond() {
+    SnowflakeIdGenerator generator = generator();
+    long first = generator.nextId();
+    long last = first;
+    for (int i = 1; i < SEQUENCE_PER_SECOND; i++) {
+      last = generator.nextId();
+    }
+    assertEquals(secondsOf(first), secondsOf(last));
+    assertEquals(SEQUENCE_PER_SECOND - 1, sequenceOf(last));
+
+    // The clock has not moved, yet the next id runs ahead into the following second
+    long carried = generator.nextId();
+    assertEquals(secondsOf(first) + 1, secondsOf(carried));
+    assertEquals(0, sequenceOf(carried));
+
+    // Once the clock catches up it continues from there rather than reusing that second
+    clock.addAndGet(1000);
+    long next = generator.nextId();
+    assertTrue(next > carried);
+    assertEquals(1, sequenceOf(next));
+  }
+
+  @Test
+  void aClockSteppingBackIsIgnored() {
+    SnowflakeIdGenerator generator = generator();
+    clock.addAndGet(60_000);
+    long before = generator.nextId();
+
+    clock.addAndGet(-30_000);
+    long after = generator.nextId();
+    assertTrue(after > before);
+    assertEquals(secondsOf(before), secondsOf(after));
+    assertEquals(sequenceOf(before) + 1, sequenceOf(after));
+  }
+
+  @Test
+  void aRestartBehindTheStoredIdsStartsAfterTheHighestOne() throws Exception {
+    // Ids written before the restart, while the clock ran ten minutes ahead of where it is now
+    SnowflakeIdGenerator before = generator();
+    clock.addAndGet(600_000);
+    long stored = 0;
+    for (int i = 0; i < 100; i++) {
+      stored = before.nextId();
+    }
+    clock.addAndGet(-600_000);
+
+    SnowflakeIdGenerator restarted = generator();
+    Statement statement = mock(Statement.class);
+    SharedSessionContractImplementor session = sessionReturningMax(stored, statement);
+
+    long first = (Long) restarted.generate(session, null);
+    assertTrue(first > stored, first + " after " + stored);
+    assertEquals(secondsOf(stored) + 1, secondsOf(first));
+    assertTrue((Long) restarted.generate(session, null) > first);
+
+    // Seeded once; later ids come from memory alone
+    verify(statement, times(1)).executeQuery(anyString());
+  }
+
+  private SnowflakeIdGenerator generator() {
+    ConfigurationService settings = mock(ConfigurationService.class);
+    when(settings.getSetting(eq(SnowflakeIdGenerator.NODE_ID_SETTING), any(ConfigurationService.Converter.class), eq("")))
+        .thenReturn(String.valueOf(NODE));
+    ServiceRegistry registry = mock(ServiceRegistry.class);
+    when(registry.getService(ConfigurationService.class)).thenReturn(settings);
+
+    Properties params = new Properties();
+    params.setProperty(PersistentIdentifierGenerator.PK, "id");
+    params.setProperty(PersistentIdentifierGenerator.TABLE, "orders");
+
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(clock::get);
+    generator.configure(null, params, registry);
+    return generator;
+  }
+
+  private static SharedSessionContractImplementor sessionReturningMax(long maxId, Statement statement) throws Exception {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.next()).thenReturn(true);
+    when(rs.getLong(1)).thenReturn(maxId);
+    when(statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM orders")).thenReturn(rs);
+    Connection connection = mock(Connection.class);
+    when(connection.createStatement()).thenReturn(statement);
+    JdbcConnectionAccess access = mock(JdbcConnectionAccess.class);
+    when(access.obtainConnection()).thenReturn(connection);
+    SharedSessionContractImplementor session = mock(SharedSessionContractImplementor.class);
+    when(session.getJdbcConnectionAccess()).thenReturn(access);
+    return session;
+  }
+
+  private static long secondsOf(long id) {
+    return id >>> 22;
+  }
+
+  private static long nodeOf(long id) {
+    return (id >>> 14) & 0xFF;
+  }
+
+  private static long sequenceOf(long id) {
+    return id & (SEQUENCE_PER_SECOND - 1);
+  }
+}
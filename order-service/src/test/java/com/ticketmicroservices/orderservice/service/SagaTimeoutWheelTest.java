@@ -0,0 +1,77 @@
+package com.ticketmicroservices.orderservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// An eight-slot wheel of one-second ticks, advanced by hand: deadlines must fire on their own
+// tick, including ones more than a full turn of the wheel away, and never after a cancel
+class SagaTimeoutWheelTest {
+
+  private static final long TICK_MS = 1000;
+
+  private SagaTimeoutWheel wheel;
+
+  @BeforeEach
+  void setUp() {
+    wheel = new SagaTimeoutWheel(TICK_MS, 8);
+    assertTrue(wheel.advance(0).isEmpty());
+  }
+
+  @Test
+  void aDeadlineFiresOnItsTickAndNotBefore() {
+    wheel.schedule(1L, 5000);
+    assertTrue(wheel.advance(4999).isEmpty());
+    assertEquals(List.of(1L), wheel.advance(5000));
+    assertTrue(wheel.advance(9000).isEmpty());
+    assertEquals(0, wheel.getOutstandingTimeouts());
+  }
+
+  @Test
+  void aDeadlineMoreThanOneTurnAwayWaitsOutItsRounds() {
+    wheel.schedule(2L, 20000);
+    // Ticks 4 and 12 land on the deadline's slot before its round comes up
+    assertTrue(wheel.advance(4000).isEmpty());
+    assertTrue(wheel.advance(12000).isEmpty());
+    assertTrue(wheel.advance(19999).isEmpty());
+    assertEquals(List.of(2L), wheel.advance(20000));
+  }
+
+  @Test
+  void oneAdvanceCatchesUpOnEveryTickItSkipped() {
+    wheel.schedule(3L, 3000);
+    wheel.schedule(4L, 30000);
+    wheel.schedule(5L, 7000);
+    List<Long> expired = wheel.advance(31000);
+    Collections.sort(expired);
+    assertEquals(List.of(3L, 4L, 5L), expired);
+  }
+
+  @Test
+  void aDeadlineAlreadyPastFiresOnTheNextTick() {
+    wheel.advance(10000);
+    wheel.schedule(6L, 2000);
+    // Tick 10 has already been processed, so it lands in the first one still to come
+    assertTrue(wheel.advance(10999).isEmpty());
+    assertEquals(List.of(6L), wheel.advance(11000));
+  }
+
+  @Test
+  void cancelledAndReplacedDeadlinesDoNotFire() {
+    wheel.schedule(7L, 3000);
+    wheel.schedule(8L, 3000);
+    wheel.cancel(7L);
+    // Rescheduling replaces the earlier deadline rather than adding a second one
+    wheel.schedule(8L, 6000);
+    assertEquals(1, wheel.getOutstandingTimeouts());
+
+    assertTrue(wheel.advance(5999).isEmpty());
+    assertEquals(List.of(8L), wheel.advance(6000));
+    assertEquals(0, wheel.getOutstandingTimeouts());
+  }
+}
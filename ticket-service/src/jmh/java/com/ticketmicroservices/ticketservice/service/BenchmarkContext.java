@@ -0,0 +1,57 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.TicketServiceApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+// Boots the ticket-service context against an embedded PostgreSQL (the claim queries are
+// Postgres-specific). Pass -Dbenchmark.jdbc-url=... to run against an existing database instead.
+class BenchmarkContext implements AutoCloseable {
+
+  private final EmbeddedPostgres postgres;
+  private final ConfigurableApplicationContext context;
+
+  BenchmarkContext(boolean inventoryEnabled) throws IOException {
+    String jdbcUrl = System.getProperty("benchmark.jdbc-url");
+    String username = System.getProperty("benchmark.jdbc-username", "postgres");
+    String password = System.getProperty("benchmark.jdbc-password", "");
+    if (jdbcUrl == null) {
+      postgres = EmbeddedPostgres.builder().start();
+      jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+    } else {
+      postgres = null;
+    }
+
+    // Passed as command-line arguments so they win over application.properties
+    context = new SpringApplicationBuilder(TicketServiceApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(
+            "--spring.datasource.url=" + jdbcUrl,
+            "--spring.datasource.username=" + username,
+            "--spring.datasource.password=" + password,
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            // No broker or Redis: keep listeners, the relay and the gate out of the measurement
+            "--spring.kafka.listener.auto-startup=false",
+            "--ticket.outbox.relay-interval-ms=3600000",
+            "--ticket.gate.enabled=false",
+            "--ticket.waiting-room.enabled=false",
+            "--ticket.inventory.enabled=" + inventoryEnabled);
+  }
+
+  <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  @Override
+  public void close() throws IOException {
+    context.close();
+    if (postgres != null) {
+      postgres.close();
+    }
+  }
+}
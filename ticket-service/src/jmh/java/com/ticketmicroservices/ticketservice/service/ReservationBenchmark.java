@@ -0,0 +1,93 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.dto.ReserveTicketRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reserve/confirm/cancel round trips through TicketService. Every operation hands its seats
+// back, so the event never sells out and runs with any thread count (-t) stay comparable.
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ReservationBenchmark {
+
+  private static final long EVENT_ID = 1L;
+
+  @Param({"1000", "100000"})
+  public int eventSize;
+
+  @Param({"1", "4"})
+  public int quantity;
+
+  // inventory: in-memory seat map; database: UPDATE ... SKIP LOCKED claim
+  @Param({"inventory", "database"})
+  public String strategy;
+
+  // direct: TicketService.reserveTickets; lanes: the per-event ReservationDispatcher
+  @Param({"direct", "lanes"})
+  public String path;
+
+  private final AtomicLong orderIds = new AtomicLong();
+
+  private BenchmarkContext context;
+  private TicketService ticketService;
+  private ReservationDispatcher reservationDispatcher;
+  private JdbcTemplate jdbcTemplate;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    context = new BenchmarkContext("inventory".equals(strategy));
+    ticketService = context.getBean(TicketService.class);
+    reservationDispatcher = context.getBean(ReservationDispatcher.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+    jdbcTemplate.execute("TRUNCATE tickets, ticket_provisioning, ticket_outbox");
+    context.getBean(SeatProvisioningService.class).provisionSeats(EVENT_ID, eventSize, 50.0);
+  }
+
+  // Messages pile up in the outbox without a relay; keep its size constant between iterations
+  @TearDown(Level.Iteration)
+  public void clearOutbox() {
+    jdbcTemplate.execute("TRUNCATE ticket_outbox");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    context.close();
+  }
+
+  @Benchmark
+  public void reserveThenCancel() {
+    long orderId = reserve();
+    ticketService.cancelTickets(orderId, EVENT_ID);
+  }
+
+  @Benchmark
+  public List<?> reserveConfirmCancel() {
+    long orderId = reserve();
+    List<?> sold = ticketService.confirmTickets(orderId, EVENT_ID);
+    ticketService.cancelTickets(orderId, EVENT_ID);
+    return sold;
+  }
+
+  private long reserve() {
+    long orderId = orderIds.incrementAndGet();
+    ReserveTicketRequest request = new ReserveTicketRequest();
+    request.setEventId(EVENT_ID);
+    request.setUserId(orderId % 1000);
+    request.setQuantity(quantity);
+    if ("lanes".equals(path)) {
+      reservationDispatcher.submit(request, orderId).join();
+    } else {
+      ticketService.reserveTickets(request, orderId);
+    }
+    return orderId;
+  }
+}
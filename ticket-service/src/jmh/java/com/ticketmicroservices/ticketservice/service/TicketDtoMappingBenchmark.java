@@ -0,0 +1,43 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.dto.TicketDto;
+import com.ticketmicroservices.ticketservice.entity.SeatCode;
+import com.ticketmicroservices.ticketservice.entity.Ticket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// The entity-to-DTO loop behind every ticket list response, without the database
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TicketDtoMappingBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  public int ticketCount;
+
+  private final TicketService ticketService = new TicketService();
+  private List<Ticket> tickets;
+
+  @Setup
+  public void setUp() {
+    tickets = new ArrayList<>(ticketCount);
+    for (int i = 0; i < ticketCount; i++) {
+      Ticket ticket = new Ticket(1L, 7L, 42L, SeatCode.encode(i / 500 + 1, i / 20 % 25 + 1, i % 20 + 1), 50.0);
+      ticket.setId((long) i);
+      ticket.setStatus(Ticket.TicketStatus.RESERVED);
+      tickets.add(ticket);
+    }
+  }
+
+  @Benchmark
+  public List<TicketDto> convertToDto() {
+    return tickets.stream().map(ticketService::convertToDto).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,57 @@
+package com.ticketmicroservices.ticketservice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+// Operator and service-to-service endpoints live under /internal, which the API gateway never
+// routes. The service ports are published as well, so each call must also carry the shared
+// X-Internal-Token; with no token configured every internal call is refused.
+@Configuration
+public class InternalApiConfig implements WebMvcConfigurer {
+
+  public static final String TOKEN_HEADER = "X-Internal-Token";
+
+  private static final Logger logger = LoggerFactory.getLogger(InternalApiConfig.class);
+
+  @Value("${ticket.internal.token:}")
+  private String token;
+
+  @PostConstruct
+  public void init() {
+    if (token.isBlank()) {
+      logger.warn("ticket.internal.token is not set; /internal endpoints will refuse every call");
+    }
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new AsyncHandlerInterceptor() {
+      @Override
+      public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!tokenMatches(token, request.getHeader(TOKEN_HEADER))) {
+          response.setStatus(HttpStatus.FORBIDDEN.value());
+          return false;
+        }
+        return true;
+      }
+    }).addPathPatterns("/internal/**");
+  }
+
+  // Constant-time, and never true while no token is configured
+  public static boolean tokenMatches(String token, String presented) {
+    return token != null && !token.isBlank() && presented != null && MessageDigest.isEqual(
+        token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+  }
+}
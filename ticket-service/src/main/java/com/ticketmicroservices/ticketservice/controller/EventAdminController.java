@@ -0,0 +1,34 @@
+package com.ticketmicroservices.ticketservice.controller;
+
+import com.ticketmicroservices.ticketservice.dto.EventAvailabilityDto;
+import com.ticketmicroservices.ticketservice.service.TicketPartitionService;
+import com.ticketmicroservices.ticketservice.service.TicketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Rebuilding an inventory and archiving an event's partition are operator actions, so they are
+// reachable over the internal API only
+@RestController
+@RequestMapping("/internal/events")
+public class EventAdminController {
+
+  @Autowired
+  private TicketService ticketService;
+
+  @Autowired
+  private TicketPartitionService ticketPartitionService;
+
+  // Rebuilds this instance's copy; call it on the event's owner
+  @PostMapping("/{eventId}/inventory/rebuild")
+  public ResponseEntity<EventAvailabilityDto> rebuildInventory(@PathVariable Long eventId) {
+    EventAvailabilityDto availability = ticketService.rebuildInventory(eventId);
+    return ResponseEntity.ok(availability);
+  }
+
+  @PostMapping("/{eventId}/archive")
+  public ResponseEntity<Void> archiveEvent(@PathVariable Long eventId) {
+    ticketPartitionService.archivePartition(eventId);
+    return ResponseEntity.ok().build();
+  }
+}
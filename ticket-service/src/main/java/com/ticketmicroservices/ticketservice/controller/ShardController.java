@@ -0,0 +1,41 @@
+package com.ticketmicroservices.ticketservice.controller;
+
+import com.ticketmicroservices.ticketservice.service.HoldExpiryScheduler;
+import com.ticketmicroservices.ticketservice.service.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+// Membership decides where reservations, with their admission tokens, are forwarded, so it is
+// managed over the internal API only
+@RestController
+@RequestMapping("/internal/shards")
+public class ShardController {
+
+  @Autowired
+  private ShardRouter shardRouter;
+
+  @Autowired
+  private HoldExpiryScheduler holdExpiryScheduler;
+
+  @GetMapping("/members")
+  public ResponseEntity<Set<String>> getMembers() {
+    return ResponseEntity.ok(shardRouter.getMembers());
+  }
+
+  // Applies to this instance only; send the same list to every member
+  @PutMapping("/members")
+  public ResponseEntity<Set<String>> updateMembers(@RequestBody List<String> members) {
+    Set<String> updated = shardRouter.updateMembers(members);
+    holdExpiryScheduler.recoverHolds();
+    return ResponseEntity.ok(updated);
+  }
+
+  @GetMapping("/owner/{eventId}")
+  public ResponseEntity<String> getOwner(@PathVariable Long eventId) {
+    return ResponseEntity.ok(shardRouter.ownerOf(eventId));
+  }
+}
@@ -1,52 +1,227 @@
 package com.ticketmicroservices.ticketservice.controller;
 
+import com.ticketmicroservices.ticketservice.config.InternalApiConfig;
+import com.ticketmicroservices.ticketservice.dto.CursorPageDto;
+import com.ticketmicroservices.ticketservice.dto.EventAvailabilityDto;
+import com.ticketmicroservices.ticketservice.dto.OrderOutcomeDto;
+import com.ticketmicroservices.ticketservice.dto.ProvisioningStatusDto;
 import com.ticketmicroservices.ticketservice.dto.ReserveTicketRequest;
 import com.ticketmicroservices.ticketservice.dto.TicketDto;
+import com.ticketmicroservices.ticketservice.service.AvailabilityBroadcaster;
+import com.ticketmicroservices.ticketservice.service.BulkTicketService;
+import com.ticketmicroservices.ticketservice.service.HoldReleasedException;
+import com.ticketmicroservices.ticketservice.service.IdempotencyStore;
+import com.ticketmicroservices.ticketservice.service.InvalidReservationException;
+import com.ticketmicroservices.ticketservice.service.ReservationDispatcher;
+import com.ticketmicroservices.ticketservice.service.SeatProvisioningService;
+import com.ticketmicroservices.ticketservice.service.ShardRouter;
 import com.ticketmicroservices.ticketservice.service.TicketService;
+import com.ticketmicroservices.ticketservice.service.WaitingRoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/tickets")
 public class TicketController {
 
+  private static final ParameterizedTypeReference<List<TicketDto>> TICKET_LIST =
+      new ParameterizedTypeReference<List<TicketDto>>() {
+      };
+
   @Autowired
   private TicketService ticketService;
 
+  @Autowired
+  private ReservationDispatcher reservationDispatcher;
+
+  @Autowired
+  private BulkTicketService bulkTicketService;
+
+  @Autowired
+  private SeatProvisioningService seatProvisioningService;
+
+  @Autowired
+  private WaitingRoomService waitingRoomService;
+
+  @Autowired
+  private IdempotencyStore idempotencyStore;
+
+  @Autowired
+  private ShardRouter shardRouter;
+
+  @Autowired
+  private AvailabilityBroadcaster availabilityBroadcaster;
+
   @PostMapping("/reserve")
-  public ResponseEntity<List<TicketDto>> reserveTickets(@RequestBody ReserveTicketRequest request,
-      @RequestParam Long orderId) {
-    List<TicketDto> tickets = ticketService.reserveTickets(request, orderId);
-    return ResponseEntity.ok(tickets);
+  public CompletableFuture<ResponseEntity<List<TicketDto>>> reserveTickets(@RequestBody ReserveTicketRequest request,
+      @RequestParam Long orderId,
+      @RequestHeader(value = "X-Admission-Token", required = false) String admissionToken,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      @RequestHeader(value = ShardRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = InternalApiConfig.TOKEN_HEADER, required = false) String internalToken) {
+    if (!shardRouter.isForwarded(forwardedBy, internalToken) && !shardRouter.isOwner(request.getEventId())) {
+      // The owner runs the admission and idempotency checks, so their headers travel along
+      HttpHeaders headers = new HttpHeaders();
+      if (admissionToken != null) {
+        headers.set("X-Admission-Token", admissionToken);
+      }
+      if (idempotencyKey != null) {
+        headers.set("Idempotency-Key", idempotencyKey);
+      }
+      return CompletableFuture.completedFuture(shardRouter.forward(request.getEventId(), HttpMethod.POST,
+          "/api/tickets/reserve?orderId=" + orderId, request, headers, TICKET_LIST));
+    }
+    if (!waitingRoomService.isAdmitted(request.getEventId(), admissionToken)) {
+      return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    }
+    String key = idempotencyKey == null ? null : "reserve:" + orderId + ":" + idempotencyKey;
+    return idempotencyStore.execute(key, () -> reservationDispatcher.submit(request, orderId))
+        .thenApply(ResponseEntity::ok);
   }
 
   @PutMapping("/confirm/{orderId}")
-  public ResponseEntity<List<TicketDto>> confirmTickets(@PathVariable Long orderId) {
-    List<TicketDto> tickets = ticketService.confirmTickets(orderId);
+  public ResponseEntity<List<TicketDto>> confirmTickets(@PathVariable Long orderId,
+      @RequestParam(required = false) Long eventId,
+      @RequestHeader(value = ShardRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = InternalApiConfig.TOKEN_HEADER, required = false) String internalToken) {
+    boolean forwarded = shardRouter.isForwarded(forwardedBy, internalToken);
+    if (!forwarded) {
+      eventId = routableEventId(orderId, eventId);
+    }
+    if (!forwarded && !shardRouter.isOwner(eventId)) {
+      return shardRouter.forward(eventId, HttpMethod.PUT,
+          "/api/tickets/confirm/" + orderId + "?eventId=" + eventId, null, new HttpHeaders(), TICKET_LIST);
+    }
+    List<TicketDto> tickets = ticketService.confirmTickets(orderId, eventId);
     return ResponseEntity.ok(tickets);
   }
 
   @PutMapping("/cancel/{orderId}")
-  public ResponseEntity<Void> cancelTickets(@PathVariable Long orderId) {
-    ticketService.cancelTickets(orderId);
+  public ResponseEntity<Void> cancelTickets(@PathVariable Long orderId,
+      @RequestParam(required = false) Long eventId,
+      @RequestHeader(value = ShardRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = InternalApiConfig.TOKEN_HEADER, required = false) String internalToken) {
+    boolean forwarded = shardRouter.isForwarded(forwardedBy, internalToken);
+    if (!forwarded) {
+      eventId = routableEventId(orderId, eventId);
+    }
+    if (!forwarded && !shardRouter.isOwner(eventId)) {
+      return shardRouter.forward(eventId, HttpMethod.PUT,
+          "/api/tickets/cancel/" + orderId + "?eventId=" + eventId, null, new HttpHeaders(),
+          new ParameterizedTypeReference<Void>() {
+          });
+    }
+    ticketService.cancelTickets(orderId, eventId);
     return ResponseEntity.ok().build();
   }
 
+  // A forwarded batch already belongs to this instance
+  @PostMapping("/confirm/batch")
+  public ResponseEntity<List<OrderOutcomeDto>> confirmOrders(@RequestBody List<Long> orderIds,
+      @RequestHeader(value = ShardRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = InternalApiConfig.TOKEN_HEADER, required = false) String internalToken) {
+    List<OrderOutcomeDto> outcomes = shardRouter.isForwarded(forwardedBy, internalToken)
+        ? bulkTicketService.confirmOrders(orderIds)
+        : bulkTicketService.confirmOrdersOnOwners(orderIds);
+    return ResponseEntity.ok(outcomes);
+  }
+
+  @PostMapping("/cancel/batch")
+  public ResponseEntity<List<OrderOutcomeDto>> cancelOrders(@RequestBody List<Long> orderIds,
+      @RequestHeader(value = ShardRouter.FORWARDED_HEADER, required = false) String forwardedBy,
+      @RequestHeader(value = InternalApiConfig.TOKEN_HEADER, required = false) String internalToken) {
+    List<OrderOutcomeDto> outcomes = shardRouter.isForwarded(forwardedBy, internalToken)
+        ? bulkTicketService.cancelOrders(orderIds)
+        : bulkTicketService.cancelOrdersOnOwners(orderIds);
+    return ResponseEntity.ok(outcomes);
+  }
+
   @GetMapping("/user/{userId}")
   public ResponseEntity<List<TicketDto>> getTicketsByUser(@PathVariable Long userId) {
     List<TicketDto> tickets = ticketService.getTicketsByUser(userId);
     return ResponseEntity.ok(tickets);
   }
 
+  @GetMapping("/user/{userId}/page")
+  public ResponseEntity<CursorPageDto<TicketDto>> getTicketPageByUser(@PathVariable Long userId,
+      @RequestParam(required = false) Long cursor,
+      @RequestParam(defaultValue = "50") int limit) {
+    CursorPageDto<TicketDto> page = ticketService.getTicketPageByUser(userId, cursor, limit);
+    return ResponseEntity.ok(page);
+  }
+
+  @GetMapping(value = "/user/{userId}/stream", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> streamTicketsByUser(@PathVariable Long userId) {
+    StreamingResponseBody body = out -> ticketService.streamTicketsByUser(userId, out);
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+  }
+
+  @GetMapping("/order/{orderId}/page")
+  public ResponseEntity<CursorPageDto<TicketDto>> getTicketPageByOrder(@PathVariable Long orderId,
+      @RequestParam(required = false) Long cursor,
+      @RequestParam(defaultValue = "50") int limit) {
+    CursorPageDto<TicketDto> page = ticketService.getTicketPageByOrder(orderId, cursor, limit);
+    return ResponseEntity.ok(page);
+  }
+
   @GetMapping("/order/{orderId}")
-  public ResponseEntity<List<TicketDto>> getTicketsByOrder(@PathVariable Long orderId) {
-    List<TicketDto> tickets = ticketService.getTicketsByOrder(orderId);
+  public ResponseEntity<List<TicketDto>> getTicketsByOrder(@PathVariable Long orderId,
+      @RequestParam(required = false) Long eventId) {
+    List<TicketDto> tickets = ticketService.getTicketsByOrder(orderId, eventId);
     return ResponseEntity.ok(tickets);
   }
 
+  @GetMapping("/event/{eventId}/availability")
+  public ResponseEntity<EventAvailabilityDto> getAvailability(@PathVariable Long eventId) {
+    EventAvailabilityDto availability = ticketService.getAvailability(eventId);
+    return ResponseEntity.ok(availability);
+  }
+
+  @GetMapping(value = "/event/{eventId}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamAvailability(@PathVariable Long eventId) {
+    // Only the event's owner sees its changes as they happen, so subscribers are sent there
+    if (!shardRouter.isOwner(eventId)) {
+      return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+          .location(URI.create(shardRouter.ownerOf(eventId) + "/api/tickets/event/" + eventId + "/availability/stream"))
+          .build();
+    }
+    return ResponseEntity.ok(availabilityBroadcaster.subscribe(eventId));
+  }
+
+  @GetMapping("/event/{eventId}/provisioning")
+  public ResponseEntity<ProvisioningStatusDto> getProvisioningStatus(@PathVariable Long eventId) {
+    ProvisioningStatusDto status = seatProvisioningService.getProvisioningStatus(eventId);
+    return ResponseEntity.ok(status);
+  }
+
+  // Without an event id the order's own tickets say which instance owns it
+  private Long routableEventId(Long orderId, Long eventId) {
+    return eventId != null || !shardRouter.isEnabled() ? eventId : ticketService.findEventIdOfOrder(orderId);
+  }
+
+  // Confirming an order whose hold has already been released
+  @ExceptionHandler(HoldReleasedException.class)
+  public ResponseEntity<String> handleHoldReleased(HoldReleasedException e) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+  }
+
+  @ExceptionHandler(InvalidReservationException.class)
+  public ResponseEntity<String> handleInvalidReservation(InvalidReservationException e) {
+    return ResponseEntity.badRequest().body(e.getMessage());
+  }
+
   @GetMapping("/health")
   public ResponseEntity<String> health() {
     return ResponseEntity.ok("Ticket Service is running");
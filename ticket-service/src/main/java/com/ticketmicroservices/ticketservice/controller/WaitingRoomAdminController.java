@@ -0,0 +1,32 @@
+package com.ticketmicroservices.ticketservice.controller;
+
+import com.ticketmicroservices.ticketservice.service.WaitingRoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Opening and closing rooms is for operators; order-service reads whether a room is open
+@RestController
+@RequestMapping("/internal/waiting-room")
+public class WaitingRoomAdminController {
+
+  @Autowired
+  private WaitingRoomService waitingRoomService;
+
+  @PostMapping("/{eventId}/open")
+  public ResponseEntity<Void> open(@PathVariable Long eventId, @RequestParam int admitRate) {
+    waitingRoomService.open(eventId, admitRate);
+    return ResponseEntity.ok().build();
+  }
+
+  @DeleteMapping("/{eventId}")
+  public ResponseEntity<Void> close(@PathVariable Long eventId) {
+    waitingRoomService.close(eventId);
+    return ResponseEntity.ok().build();
+  }
+
+  @GetMapping("/{eventId}/open")
+  public ResponseEntity<Boolean> isOpen(@PathVariable Long eventId) {
+    return ResponseEntity.ok(waitingRoomService.isOpen(eventId));
+  }
+}
@@ -0,0 +1,35 @@
+package com.ticketmicroservices.ticketservice.controller;
+
+import com.ticketmicroservices.ticketservice.dto.QueueStatusDto;
+import com.ticketmicroservices.ticketservice.service.AdmissionExpiredException;
+import com.ticketmicroservices.ticketservice.service.WaitingRoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+public class WaitingRoomController {
+
+  @Autowired
+  private WaitingRoomService waitingRoomService;
+
+  @PostMapping("/{eventId}/join")
+  public ResponseEntity<QueueStatusDto> join(@PathVariable Long eventId) {
+    QueueStatusDto status = waitingRoomService.join(eventId);
+    return ResponseEntity.ok(status);
+  }
+
+  @GetMapping("/{eventId}/status")
+  public ResponseEntity<QueueStatusDto> getStatus(@PathVariable Long eventId,
+      @RequestHeader("X-Queue-Ticket") String queueTicket) {
+    QueueStatusDto status = waitingRoomService.getStatus(eventId, queueTicket);
+    return ResponseEntity.ok(status);
+  }
+
+  @ExceptionHandler(AdmissionExpiredException.class)
+  public ResponseEntity<String> handleAdmissionExpired(AdmissionExpiredException e) {
+    return ResponseEntity.status(HttpStatus.GONE).body(e.getMessage());
+  }
+}
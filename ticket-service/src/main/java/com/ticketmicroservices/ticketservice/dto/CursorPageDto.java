@@ -0,0 +1,33 @@
+package com.ticketmicroservices.ticketservice.dto;
+
+import java.util.List;
+
+public class CursorPageDto<T> {
+  private List<T> items;
+  private Long nextCursor;
+
+  public CursorPageDto() {
+  }
+
+  public CursorPageDto(List<T> items, Long nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+  public void setItems(List<T> items) {
+    this.items = items;
+  }
+
+  // Id to pass as `cursor` for the next page; null on the last page
+  public Long getNextCursor() {
+    return nextCursor;
+  }
+
+  public void setNextCursor(Long nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+}
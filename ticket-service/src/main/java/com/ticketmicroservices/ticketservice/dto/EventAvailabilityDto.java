@@ -0,0 +1,30 @@
+package com.ticketmicroservices.ticketservice.dto;
+
+public class EventAvailabilityDto {
+  private Long eventId;
+  private Long availableTickets;
+
+  public EventAvailabilityDto() {
+  }
+
+  public EventAvailabilityDto(Long eventId, Long availableTickets) {
+    this.eventId = eventId;
+    this.availableTickets = availableTickets;
+  }
+
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  public Long getAvailableTickets() {
+    return availableTickets;
+  }
+
+  public void setAvailableTickets(Long availableTickets) {
+    this.availableTickets = availableTickets;
+  }
+}
@@ -0,0 +1,40 @@
+package com.ticketmicroservices.ticketservice.dto;
+
+public class OrderOutcomeDto {
+  private Long orderId;
+  private String outcome;
+  private Integer ticketCount;
+
+  public OrderOutcomeDto() {
+  }
+
+  public OrderOutcomeDto(Long orderId, String outcome, Integer ticketCount) {
+    this.orderId = orderId;
+    this.outcome = outcome;
+    this.ticketCount = ticketCount;
+  }
+
+  public Long getOrderId() {
+    return orderId;
+  }
+
+  public void setOrderId(Long orderId) {
+    this.orderId = orderId;
+  }
+
+  public String getOutcome() {
+    return outcome;
+  }
+
+  public void setOutcome(String outcome) {
+    this.outcome = outcome;
+  }
+
+  public Integer getTicketCount() {
+    return ticketCount;
+  }
+
+  public void setTicketCount(Integer ticketCount) {
+    this.ticketCount = ticketCount;
+  }
+}
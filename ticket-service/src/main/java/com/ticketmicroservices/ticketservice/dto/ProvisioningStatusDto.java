@@ -0,0 +1,50 @@
+package com.ticketmicroservices.ticketservice.dto;
+
+public class ProvisioningStatusDto {
+  private Long eventId;
+  private Integer totalTickets;
+  private Integer provisionedTickets;
+  private String status;
+
+  public ProvisioningStatusDto() {
+  }
+
+  public ProvisioningStatusDto(Long eventId, Integer totalTickets, Integer provisionedTickets, String status) {
+    this.eventId = eventId;
+    this.totalTickets = totalTickets;
+    this.provisionedTickets = provisionedTickets;
+    this.status = status;
+  }
+
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  public Integer getTotalTickets() {
+    return totalTickets;
+  }
+
+  public void setTotalTickets(Integer totalTickets) {
+    this.totalTickets = totalTickets;
+  }
+
+  public Integer getProvisionedTickets() {
+    return provisionedTickets;
+  }
+
+  public void setProvisionedTickets(Integer provisionedTickets) {
+    this.provisionedTickets = provisionedTickets;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+}
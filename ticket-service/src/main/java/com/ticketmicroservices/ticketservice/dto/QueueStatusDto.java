@@ -0,0 +1,60 @@
+package com.ticketmicroservices.ticketservice.dto;
+
+public class QueueStatusDto {
+  private Long eventId;
+  private String queueTicket;
+  private Long position;
+  private Boolean admitted;
+  private String admissionToken;
+
+  public QueueStatusDto() {
+  }
+
+  public QueueStatusDto(Long eventId, String queueTicket, Long position, Boolean admitted, String admissionToken) {
+    this.eventId = eventId;
+    this.queueTicket = queueTicket;
+    this.position = position;
+    this.admitted = admitted;
+    this.admissionToken = admissionToken;
+  }
+
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  public String getQueueTicket() {
+    return queueTicket;
+  }
+
+  public void setQueueTicket(String queueTicket) {
+    this.queueTicket = queueTicket;
+  }
+
+  public Long getPosition() {
+    return position;
+  }
+
+  public void setPosition(Long position) {
+    this.position = position;
+  }
+
+  public Boolean getAdmitted() {
+    return admitted;
+  }
+
+  public void setAdmitted(Boolean admitted) {
+    this.admitted = admitted;
+  }
+
+  public String getAdmissionToken() {
+    return admissionToken;
+  }
+
+  public void setAdmissionToken(String admissionToken) {
+    this.admissionToken = admissionToken;
+  }
+}
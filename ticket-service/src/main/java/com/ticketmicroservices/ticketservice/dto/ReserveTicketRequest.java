@@ -4,6 +4,7 @@ public class ReserveTicketRequest {
   private Long eventId;
   private Long userId;
   private Integer quantity;
+  private Boolean requireAdjacent;
 
   public ReserveTicketRequest() {
   }
@@ -37,4 +38,12 @@ public class ReserveTicketRequest {
   public void setQuantity(Integer quantity) {
     this.quantity = quantity;
   }
+
+  public Boolean getRequireAdjacent() {
+    return requireAdjacent;
+  }
+
+  public void setRequireAdjacent(Boolean requireAdjacent) {
+    this.requireAdjacent = requireAdjacent;
+  }
 }
\ No newline at end of file
@@ -1,23 +1,25 @@
 package com.ticketmicroservices.ticketservice.dto;
 
+import com.ticketmicroservices.ticketservice.entity.SeatCode;
+
 public class TicketDto {
   private Long id;
   private Long eventId;
   private Long userId;
   private Long orderId;
-  private String seatNumber;
+  private Integer seatCode;
   private Double price;
   private String status;
 
   public TicketDto() {
   }
 
-  public TicketDto(Long id, Long eventId, Long userId, Long orderId, String seatNumber, Double price, String status) {
+  public TicketDto(Long id, Long eventId, Long userId, Long orderId, Integer seatCode, Double price, String status) {
     this.id = id;
     this.eventId = eventId;
     this.userId = userId;
     this.orderId = orderId;
-    this.seatNumber = seatNumber;
+    this.seatCode = seatCode;
     this.price = price;
     this.status = status;
   }
@@ -55,12 +57,17 @@ public class TicketDto {
     this.orderId = orderId;
   }
 
-  public String getSeatNumber() {
-    return seatNumber;
+  public Integer getSeatCode() {
+    return seatCode;
   }
 
-  public void setSeatNumber(String seatNumber) {
-    this.seatNumber = seatNumber;
+  public void setSeatCode(Integer seatCode) {
+    this.seatCode = seatCode;
+  }
+
+  // The label is only formatted when the response is written
+  public String getSeatNumber() {
+    return seatCode == null ? null : SeatCode.label(seatCode);
   }
 
   public Double getPrice() {
@@ -0,0 +1,41 @@
+package com.ticketmicroservices.ticketservice.entity;
+
+// A seat packed into one positive int: 11 bits of section, 10 of row, 10 of seat.
+// Codes sort in seat-map order, and seats next to each other in a row have consecutive codes.
+public final class SeatCode {
+
+  public static final int MAX_SECTION = (1 << 11) - 1;
+  public static final int MAX_ROW = (1 << 10) - 1;
+  public static final int MAX_SEAT = (1 << 10) - 1;
+
+  private SeatCode() {
+  }
+
+  public static int encode(int section, int row, int seat) {
+    if (section < 1 || section > MAX_SECTION || row < 1 || row > MAX_ROW || seat < 1 || seat > MAX_SEAT) {
+      throw new IllegalArgumentException("Seat out of range: S" + section + "-R" + row + "-" + seat);
+    }
+    return section << 20 | row << 10 | seat;
+  }
+
+  public static int section(int code) {
+    return code >>> 20;
+  }
+
+  public static int row(int code) {
+    return (code >>> 10) & MAX_ROW;
+  }
+
+  public static int seat(int code) {
+    return code & MAX_SEAT;
+  }
+
+  public static boolean isAdjacent(int left, int right) {
+    return right == left + 1 && (left >>> 10) == (right >>> 10);
+  }
+
+  // Human-readable label, e.g. "S3-R12-7"; only built when a ticket leaves the service
+  public static String label(int code) {
+    return "S" + section(code) + "-R" + row(code) + "-" + seat(code);
+  }
+}
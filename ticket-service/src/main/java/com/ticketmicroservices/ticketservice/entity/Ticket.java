@@ -13,14 +13,15 @@ public class Ticket {
   @Column(name = "event_id", nullable = false)
   private Long eventId;
 
-  @Column(name = "user_id", nullable = false)
+  @Column(name = "user_id")
   private Long userId;
 
-  @Column(name = "order_id", nullable = false)
+  @Column(name = "order_id")
   private Long orderId;
 
-  @Column(nullable = false)
-  private String seatNumber;
+  // Section, row and seat packed by SeatCode
+  @Column(name = "seat_code", nullable = false)
+  private Integer seatCode;
 
   @Column(nullable = false)
   private Double price;
@@ -34,6 +35,10 @@ public class Ticket {
   @Column(name = "updated_at")
   private LocalDateTime updatedAt;
 
+  // Bumped on every update; a stale write fails instead of overwriting
+  @Version
+  private Long version;
+
   public enum TicketStatus {
     AVAILABLE, RESERVED, SOLD, CANCELLED
   }
@@ -42,11 +47,11 @@ public class Ticket {
   public Ticket() {
   }
 
-  public Ticket(Long eventId, Long userId, Long orderId, String seatNumber, Double price) {
+  public Ticket(Long eventId, Long userId, Long orderId, Integer seatCode, Double price) {
     this.eventId = eventId;
     this.userId = userId;
     this.orderId = orderId;
-    this.seatNumber = seatNumber;
+    this.seatCode = seatCode;
     this.price = price;
     this.status = TicketStatus.AVAILABLE;
     this.createdAt = LocalDateTime.now();
@@ -86,12 +91,12 @@ public class Ticket {
     this.orderId = orderId;
   }
 
-  public String getSeatNumber() {
-    return seatNumber;
+  public Integer getSeatCode() {
+    return seatCode;
   }
 
-  public void setSeatNumber(String seatNumber) {
-    this.seatNumber = seatNumber;
+  public void setSeatCode(Integer seatCode) {
+    this.seatCode = seatCode;
   }
 
   public Double getPrice() {
@@ -125,4 +130,12 @@ public class Ticket {
   public void setUpdatedAt(LocalDateTime updatedAt) {
     this.updatedAt = updatedAt;
   }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
 }
\ No newline at end of file
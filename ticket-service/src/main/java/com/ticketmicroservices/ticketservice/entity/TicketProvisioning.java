@@ -0,0 +1,105 @@
+package com.ticketmicroservices.ticketservice.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ticket_provisioning")
+public class TicketProvisioning {
+  @Id
+  @Column(name = "event_id")
+  private Long eventId;
+
+  @Column(name = "total_tickets", nullable = false)
+  private Integer totalTickets;
+
+  @Column(name = "provisioned_tickets", nullable = false)
+  private Integer provisionedTickets;
+
+  @Column(name = "ticket_price", nullable = false)
+  private Double ticketPrice;
+
+  @Enumerated(EnumType.STRING)
+  private ProvisioningStatus status;
+
+  @Column(name = "created_at")
+  private LocalDateTime createdAt;
+
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
+  public enum ProvisioningStatus {
+    IN_PROGRESS, COMPLETED
+  }
+
+  // Constructors
+  public TicketProvisioning() {
+  }
+
+  public TicketProvisioning(Long eventId, Integer totalTickets, Double ticketPrice) {
+    this.eventId = eventId;
+    this.totalTickets = totalTickets;
+    this.provisionedTickets = 0;
+    this.ticketPrice = ticketPrice;
+    this.status = ProvisioningStatus.IN_PROGRESS;
+    this.createdAt = LocalDateTime.now();
+    this.updatedAt = LocalDateTime.now();
+  }
+
+  // Getters and Setters
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public void setEventId(Long eventId) {
+    this.eventId = eventId;
+  }
+
+  public Integer getTotalTickets() {
+    return totalTickets;
+  }
+
+  public void setTotalTickets(Integer totalTickets) {
+    this.totalTickets = totalTickets;
+  }
+
+  public Integer getProvisionedTickets() {
+    return provisionedTickets;
+  }
+
+  public void setProvisionedTickets(Integer provisionedTickets) {
+    this.provisionedTickets = provisionedTickets;
+  }
+
+  public Double getTicketPrice() {
+    return ticketPrice;
+  }
+
+  public void setTicketPrice(Double ticketPrice) {
+    this.ticketPrice = ticketPrice;
+  }
+
+  public ProvisioningStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(ProvisioningStatus status) {
+    this.status = status;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public LocalDateTime getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(LocalDateTime updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
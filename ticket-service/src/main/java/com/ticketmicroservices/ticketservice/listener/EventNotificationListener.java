@@ -0,0 +1,49 @@
+package com.ticketmicroservices.ticketservice.listener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.ticketservice.service.OutboxRelay;
+import com.ticketmicroservices.ticketservice.service.SeatProvisioningService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EventNotificationListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(EventNotificationListener.class);
+
+  @Autowired
+  private SeatProvisioningService seatProvisioningService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @KafkaListener(topics = "event-notifications")
+  public void onEventNotification(ConsumerRecord<String, String> record) {
+    if (!"EVENT_CREATED".equals(OutboxRelay.eventTypeOf(record))) {
+      return;
+    }
+
+    JsonNode payload;
+    try {
+      payload = objectMapper.readTree(record.value());
+    } catch (JsonProcessingException e) {
+      logger.warn("Skipping EVENT_CREATED notification without seat details: {}", record.value());
+      return;
+    }
+    if (!payload.hasNonNull("eventId") || !payload.hasNonNull("totalTickets") || !payload.hasNonNull("ticketPrice")) {
+      logger.warn("Skipping EVENT_CREATED notification without seat details: {}", record.value());
+      return;
+    }
+
+    seatProvisioningService.provisionSeats(
+        payload.get("eventId").asLong(),
+        payload.get("totalTickets").asInt(),
+        payload.get("ticketPrice").asDouble());
+  }
+}
@@ -0,0 +1,18 @@
+package com.ticketmicroservices.ticketservice.repository;
+
+import com.ticketmicroservices.ticketservice.entity.TicketProvisioning;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface TicketProvisioningRepository extends JpaRepository<TicketProvisioning, Long> {
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM TicketProvisioning p WHERE p.eventId = :eventId")
+  Optional<TicketProvisioning> findByIdForUpdate(@Param("eventId") Long eventId);
+}
@@ -1,18 +1,172 @@
 package com.ticketmicroservices.ticketservice.repository;
 
 import com.ticketmicroservices.ticketservice.entity.Ticket;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
+  // Closed projection: only these columns are selected
+  interface TicketView {
+    Long getId();
+
+    Long getEventId();
+
+    Long getUserId();
+
+    Long getOrderId();
+
+    Integer getSeatCode();
+
+    Double getPrice();
+
+    Ticket.TicketStatus getStatus();
+  }
+
+  interface SeatState {
+    Long getId();
+
+    Ticket.TicketStatus getStatus();
+
+    Integer getSeatCode();
+  }
+
+  interface ReservedHold {
+    Long getOrderId();
+
+    Long getEventId();
+
+    LocalDateTime getReservedAt();
+  }
+
+  interface ReleasedSeat {
+    Long getId();
+
+    Long getEventId();
+
+    Long getOrderId();
+  }
+
+  interface OrderSeat {
+    Long getId();
+
+    Long getEventId();
+
+    Long getOrderId();
+
+    Long getUserId();
+  }
+
+  interface OrderEvent {
+    Long getOrderId();
+
+    Long getEventId();
+  }
+
   List<Ticket> findByEventIdAndStatus(Long eventId, Ticket.TicketStatus status);
 
   List<Ticket> findByUserId(Long userId);
 
   List<Ticket> findByOrderId(Long orderId);
 
+  // Same lookup pruned to the event's partition
+  List<Ticket> findByEventIdAndOrderId(Long eventId, Long orderId);
+
+  // Keyset pages, newest first: pass the last id seen as `beforeId`
+  List<TicketView> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long beforeId, Pageable pageable);
+
+  List<TicketView> findByOrderIdAndIdLessThanOrderByIdDesc(Long orderId, Long beforeId, Pageable pageable);
+
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+  Stream<TicketView> streamByUserIdOrderByIdDesc(Long userId);
+
   long countByEventIdAndStatus(Long eventId, Ticket.TicketStatus status);
-}
\ No newline at end of file
+
+  // Picks and reserves up to :quantity available seats in a single statement.
+  // Rows locked by concurrent claims are skipped instead of waited on.
+  // Every bulk update bumps version so entities loaded before it fail their optimistic check.
+  @Query(value = "UPDATE tickets SET status = 'RESERVED', user_id = :userId, order_id = :orderId, "
+      + "updated_at = now(), version = version + 1 "
+      + "WHERE event_id = :eventId AND id IN (SELECT id FROM tickets WHERE event_id = :eventId AND status = 'AVAILABLE' "
+      + "ORDER BY id LIMIT :quantity FOR UPDATE SKIP LOCKED) "
+      + "RETURNING *", nativeQuery = true)
+  List<Ticket> claimAvailableTickets(@Param("eventId") Long eventId, @Param("userId") Long userId,
+      @Param("orderId") Long orderId, @Param("quantity") int quantity);
+
+  // Reserves the given seats, skipping any that are no longer available or are locked by another claim
+  @Query(value = "UPDATE tickets SET status = 'RESERVED', user_id = :userId, order_id = :orderId, "
+      + "updated_at = now(), version = version + 1 "
+      + "WHERE event_id = :eventId AND id IN (SELECT id FROM tickets WHERE event_id = :eventId AND id IN (:ticketIds) "
+      + "AND status = 'AVAILABLE' FOR UPDATE SKIP LOCKED) "
+      + "RETURNING *", nativeQuery = true)
+  List<Ticket> claimTicketsById(@Param("eventId") Long eventId, @Param("ticketIds") List<Long> ticketIds,
+      @Param("userId") Long userId, @Param("orderId") Long orderId);
+
+  @Modifying
+  @Query(value = "UPDATE tickets SET status = 'AVAILABLE', user_id = NULL, order_id = NULL, "
+      + "updated_at = now(), version = version + 1 "
+      + "WHERE event_id = :eventId AND id IN (:ticketIds) AND status = 'RESERVED'", nativeQuery = true)
+  int releaseClaimedTickets(@Param("eventId") Long eventId, @Param("ticketIds") List<Long> ticketIds);
+
+  // Returns seats to AVAILABLE for orders whose hold ran out; tickets confirmed in the meantime are left alone
+  @Query(value = "UPDATE tickets t SET status = 'AVAILABLE', user_id = NULL, order_id = NULL, "
+      + "updated_at = now(), version = t.version + 1 "
+      + "FROM (SELECT id, order_id FROM tickets WHERE event_id IN (:eventIds) AND order_id IN (:orderIds) "
+      + "AND status = 'RESERVED') held "
+      + "WHERE t.event_id IN (:eventIds) AND t.id = held.id AND t.status = 'RESERVED' "
+      + "RETURNING t.id AS id, t.event_id AS eventId, held.order_id AS orderId", nativeQuery = true)
+  List<ReleasedSeat> releaseReservedTickets(@Param("eventIds") List<Long> eventIds,
+      @Param("orderIds") List<Long> orderIds);
+
+  // Set-based confirm for a chunk of orders; seats already sold are left out of RETURNING
+  @Query(value = "UPDATE tickets SET status = 'SOLD', updated_at = now(), version = version + 1 "
+      + "WHERE order_id IN (:orderIds) AND status = 'RESERVED' "
+      + "RETURNING id, event_id AS eventId, order_id AS orderId, user_id AS userId", nativeQuery = true)
+  List<OrderSeat> sellOrderTickets(@Param("orderIds") List<Long> orderIds);
+
+  // Set-based cancel for a chunk of orders; the subquery keeps the order and user ids for RETURNING.
+  // Only held seats go back, never sold ones
+  @Query(value = "UPDATE tickets t SET status = 'AVAILABLE', user_id = NULL, order_id = NULL, "
+      + "updated_at = now(), version = t.version + 1 "
+      + "FROM (SELECT id, order_id, user_id FROM tickets WHERE order_id IN (:orderIds) AND status = 'RESERVED') held "
+      + "WHERE t.id = held.id AND t.status = 'RESERVED' "
+      + "RETURNING t.id AS id, t.event_id AS eventId, held.order_id AS orderId, held.user_id AS userId",
+      nativeQuery = true)
+  List<OrderSeat> releaseOrderTickets(@Param("orderIds") List<Long> orderIds);
+
+  // The events a set of orders holds tickets in; probes every partition
+  @Query("SELECT DISTINCT t.orderId AS orderId, t.eventId AS eventId FROM Ticket t WHERE t.orderId IN :orderIds")
+  List<OrderEvent> findOrderEvents(@Param("orderIds") List<Long> orderIds);
+
+  @Query("SELECT t.orderId AS orderId, t.eventId AS eventId, MAX(t.updatedAt) AS reservedAt FROM Ticket t "
+      + "WHERE t.status = :status GROUP BY t.orderId, t.eventId")
+  List<ReservedHold> findReservedHolds(@Param("status") Ticket.TicketStatus status);
+
+  // Seats in seat-map order, read straight off the (event_id, seat_code) index
+  @Query("SELECT t.id AS id, t.status AS status, t.seatCode AS seatCode FROM Ticket t "
+      + "WHERE t.eventId = :eventId ORDER BY t.seatCode, t.id")
+  List<SeatState> findSeatStatesByEventId(@Param("eventId") Long eventId);
+
+  // Generates seats [fromSeat, toSeat) of an event server-side in one multi-row insert,
+  // laid out row by row and section by section
+  @Modifying
+  @Query(value = "INSERT INTO tickets (event_id, seat_code, price, status, created_at, updated_at) "
+      + "SELECT :eventId, (s.section_no << 20) | (s.row_no << 10) | s.seat_ordinal, :price, 'AVAILABLE', now(), now() "
+      + "FROM (SELECT n / :seatsPerSection + 1 AS section_no, (n % :seatsPerSection) / :seatsPerRow + 1 AS row_no, "
+      + "n % :seatsPerRow + 1 AS seat_ordinal FROM generate_series(:fromSeat, :toSeat - 1) AS n) s", nativeQuery = true)
+  int insertSeatRange(@Param("eventId") Long eventId, @Param("price") Double price,
+      @Param("seatsPerRow") int seatsPerRow, @Param("seatsPerSection") int seatsPerSection,
+      @Param("fromSeat") int fromSeat, @Param("toSeat") int toSeat);
+}
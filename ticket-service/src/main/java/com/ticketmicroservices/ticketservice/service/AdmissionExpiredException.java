@@ -0,0 +1,9 @@
+package com.ticketmicroservices.ticketservice.service;
+
+// The buyer was admitted longer ago than the admission window; they have to join the line again
+public class AdmissionExpiredException extends RuntimeException {
+
+  public AdmissionExpiredException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,75 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+// HMAC-signs the waiting-room queue tickets and admission tokens. Tokens are
+// self-contained ("payload.signature"), so nothing per client is kept server side.
+@Component
+public class AdmissionTokenSigner {
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  @Value("${ticket.waiting-room.enabled:true}")
+  private boolean enabled;
+
+  // No default: a key anyone can read in the repository would let anyone mint tokens
+  @Value("${ticket.waiting-room.secret:}")
+  private String secret;
+
+  private SecretKeySpec key;
+
+  @PostConstruct
+  public void init() {
+    if (secret.isBlank()) {
+      if (enabled) {
+        throw new IllegalStateException("ticket.waiting-room.secret (WAITING_ROOM_SECRET) must be set "
+            + "while the waiting room is enabled");
+      }
+      return;
+    }
+    key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+  }
+
+  public String sign(String payload) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    return encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + encoder.encodeToString(mac(payload));
+  }
+
+  // Returns the payload, or null when the token is malformed or the signature does not match
+  public String verify(String token) {
+    if (token == null) {
+      return null;
+    }
+    int dot = token.indexOf('.');
+    if (dot < 0) {
+      return null;
+    }
+    try {
+      Base64.Decoder decoder = Base64.getUrlDecoder();
+      String payload = new String(decoder.decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+      byte[] signature = decoder.decode(token.substring(dot + 1));
+      return MessageDigest.isEqual(mac(payload), signature) ? payload : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private byte[] mac(String payload) {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot sign admission token", e);
+    }
+  }
+}
@@ -0,0 +1,320 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.ticketservice.dto.EventAvailabilityDto;
+import com.ticketmicroservices.ticketservice.entity.Ticket;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Pushes per-event seat availability to Server-Sent Events subscribers. Writes only mark
+// their event dirty; a fixed tick reads each dirty event's count once, serializes it once and
+// sends that frame to every subscriber, so the cost per tick follows the number of changed
+// events rather than the number of clients. Unchanged counts are not re-sent. Each event's
+// subscribers are split into shards written by a separate sender pool, so a slow client holds
+// up neither the shared scheduler nor the rest of its event.
+@Service
+public class AvailabilityBroadcaster {
+
+  private static final Logger logger = LoggerFactory.getLogger(AvailabilityBroadcaster.class);
+
+  @Autowired
+  private SeatInventoryService seatInventoryService;
+
+  @Autowired
+  private TicketRepository ticketRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${ticket.availability-stream.timeout-ms:1800000}")
+  private long timeoutMs;
+
+  // Events with subscribers are re-read at least this often, which picks up changes made by
+  // other instances
+  @Value("${ticket.availability-stream.refresh-ms:5000}")
+  private long refreshMs;
+
+  @Value("${ticket.availability-stream.senders:4}")
+  private int senders;
+
+  @Value("${ticket.availability-stream.shards:8}")
+  private int shardCount;
+
+  // A subscriber whose write takes longer than this is dropped; it can reconnect
+  @Value("${ticket.availability-stream.send-timeout-ms:2000}")
+  private long sendTimeoutMs;
+
+  private final ConcurrentMap<Long, Channel> channels = new ConcurrentHashMap<>();
+  private final Set<Long> dirtyEvents = ConcurrentHashMap.newKeySet();
+
+  private ExecutorService senderPool;
+
+  @PostConstruct
+  public void init() {
+    senderPool = Executors.newFixedThreadPool(senders);
+    Gauge.builder("ticket.availability.stream.subscribers", channels,
+        c -> c.values().stream().mapToInt(Channel::size).sum())
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    senderPool.shutdown();
+  }
+
+  public SseEmitter subscribe(Long eventId) {
+    return subscribe(eventId, new SseEmitter(timeoutMs));
+  }
+
+  SseEmitter subscribe(Long eventId, SseEmitter emitter) {
+    // Joining and leaving a channel both go through compute, so the last subscriber leaving
+    // can drop the channel without racing a new subscriber into a discarded one
+    Subscriber subscriber = new Subscriber(emitter, Math.floorMod(System.identityHashCode(emitter), shardCount));
+    Channel channel = channels.compute(eventId, (id, existing) -> {
+      Channel joined = existing != null ? existing : new Channel(id, shardCount);
+      joined.shards.get(subscriber.shard).subscribers.add(subscriber);
+      return joined;
+    });
+    emitter.onCompletion(() -> unsubscribe(channel, subscriber));
+    emitter.onTimeout(() -> unsubscribe(channel, subscriber));
+    emitter.onError(e -> unsubscribe(channel, subscriber));
+
+    // A new subscriber gets the last frame right away; the first one waits for the next tick
+    String lastFrame = channel.lastFrame;
+    if (lastFrame != null) {
+      if (!send(channel, subscriber, lastFrame)) {
+        drop(channel, subscriber);
+      }
+    } else {
+      dirtyEvents.add(eventId);
+    }
+    return emitter;
+  }
+
+  private void unsubscribe(Channel channel, Subscriber subscriber) {
+    channels.computeIfPresent(channel.eventId, (id, existing) -> {
+      existing.shards.get(subscriber.shard).subscribers.remove(subscriber);
+      return existing.size() == 0 ? null : existing;
+    });
+    if (!channels.containsKey(channel.eventId)) {
+      dirtyEvents.remove(channel.eventId);
+    }
+  }
+
+  private void drop(Channel channel, Subscriber subscriber) {
+    unsubscribe(channel, subscriber);
+    subscriber.emitter.complete();
+  }
+
+  public void markChanged(Long eventId) {
+    if (channels.containsKey(eventId)) {
+      dirtyEvents.add(eventId);
+    }
+  }
+
+  // Subscribers only hear about a change once it has committed
+  public void markChangedAfterCommit(Long eventId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      markChanged(eventId);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        markChanged(eventId);
+      }
+    });
+  }
+
+  @Scheduled(fixedDelayString = "${ticket.availability-stream.tick-ms:500}")
+  public void tick() {
+    long now = System.currentTimeMillis();
+    replaceStalledShards(now);
+
+    List<Long> events = new ArrayList<>();
+    for (Map.Entry<Long, Channel> entry : channels.entrySet()) {
+      if (dirtyEvents.remove(entry.getKey()) || now - entry.getValue().refreshedAt >= refreshMs) {
+        events.add(entry.getKey());
+      }
+    }
+
+    for (Long eventId : events) {
+      try {
+        publish(eventId, channels.get(eventId), now);
+      } catch (RuntimeException e) {
+        logger.warn("Failed to publish availability for event {}: {}", eventId, e.getMessage());
+      }
+    }
+  }
+
+  private void publish(Long eventId, Channel channel, long now) {
+    if (channel == null) {
+      return;
+    }
+    channel.refreshedAt = now;
+    long available = seatInventoryService.isEnabled()
+        ? seatInventoryService.get(eventId).getAvailableCount()
+        : ticketRepository.countByEventIdAndStatus(eventId, Ticket.TicketStatus.AVAILABLE);
+    if (channel.lastFrame != null && available == channel.lastAvailable) {
+      return;
+    }
+
+    String frame;
+    try {
+      frame = objectMapper.writeValueAsString(new EventAvailabilityDto(eventId, available));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize availability", e);
+    }
+    channel.lastAvailable = available;
+    channel.lastFrame = frame;
+    for (int i = 0; i < channel.shards.length(); i++) {
+      startDrain(channel, channel.shards.get(i));
+    }
+  }
+
+  private void startDrain(Channel channel, Shard shard) {
+    if (shard.sending.compareAndSet(false, true)) {
+      senderPool.execute(() -> drain(channel, shard));
+    }
+  }
+
+  // One sender per shard at a time keeps its frames in order. A frame published while the
+  // previous one is still going out replaces it, since only the latest count matters.
+  private void drain(Channel channel, Shard shard) {
+    while (!shard.retired) {
+      String frame = channel.lastFrame;
+      if (frame != null && !frame.equals(shard.sentFrame)) {
+        shard.sentFrame = frame;
+        for (Subscriber subscriber : shard.subscribers) {
+          if (shard.retired) {
+            break;
+          }
+          shard.sendingSince = System.currentTimeMillis();
+          shard.sendingTo = subscriber;
+          boolean sent = send(channel, subscriber, frame);
+          shard.sendingTo = null;
+          if (!sent) {
+            drop(channel, subscriber);
+          }
+        }
+        continue;
+      }
+      shard.sending.set(false);
+      String published = channel.lastFrame;
+      if (published == null || published.equals(shard.sentFrame)
+          || !shard.sending.compareAndSet(false, true)) {
+        return;
+      }
+    }
+  }
+
+  // A blocked write cannot be interrupted, so once it has run past the send timeout its shard
+  // goes to a fresh sender without that subscriber, and the blocked sender stops once it returns
+  private void replaceStalledShards(long now) {
+    for (Channel channel : channels.values()) {
+      for (int i = 0; i < channel.shards.length(); i++) {
+        Shard shard = channel.shards.get(i);
+        Subscriber stalled = shard.sendingTo;
+        if (stalled == null || now - shard.sendingSince <= sendTimeoutMs) {
+          continue;
+        }
+        shard.retired = true;
+        unsubscribe(channel, stalled);
+        Shard replacement = new Shard(shard.subscribers);
+        if (channel.shards.compareAndSet(i, shard, replacement)) {
+          logger.info("Dropped a subscriber to event {} whose write stalled for {} ms",
+              channel.eventId, now - shard.sendingSince);
+          startDrain(channel, replacement);
+        }
+      }
+    }
+  }
+
+  // False when the subscriber should be dropped: it went away or took too long to take the frame
+  private boolean send(Channel channel, Subscriber subscriber, String frame) {
+    long started = System.currentTimeMillis();
+    try {
+      subscriber.emitter.send(SseEmitter.event().name("availability").data(frame, MediaType.APPLICATION_JSON));
+    } catch (IOException | IllegalStateException e) {
+      return false;
+    }
+    return System.currentTimeMillis() - started <= sendTimeoutMs;
+  }
+
+  private static class Subscriber {
+    private final SseEmitter emitter;
+    private final int shard;
+
+    private Subscriber(SseEmitter emitter, int shard) {
+      this.emitter = emitter;
+      this.shard = shard;
+    }
+  }
+
+  private static class Shard {
+    private final Set<Subscriber> subscribers;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile String sentFrame;
+    private volatile boolean retired;
+    // The subscriber being written to right now and since when; written before the write starts
+    private volatile long sendingSince;
+    private volatile Subscriber sendingTo;
+
+    private Shard(Set<Subscriber> subscribers) {
+      this.subscribers = subscribers;
+    }
+  }
+
+  private static class Channel {
+    private final Long eventId;
+    private final AtomicReferenceArray<Shard> shards;
+    private volatile String lastFrame;
+    private volatile long lastAvailable;
+    private volatile long refreshedAt;
+
+    private Channel(Long eventId, int shardCount) {
+      this.eventId = eventId;
+      this.shards = new AtomicReferenceArray<>(shardCount);
+      for (int i = 0; i < shardCount; i++) {
+        shards.set(i, new Shard(ConcurrentHashMap.newKeySet()));
+      }
+    }
+
+    private int size() {
+      int size = 0;
+      for (int i = 0; i < shards.length(); i++) {
+        size += shards.get(i).subscribers.size();
+      }
+      return size;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.entity.Ticket;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per-event available-seat counter in Redis that admits or rejects reservations
+// before they reach Postgres. The tickets table stays authoritative: counters are
+// seeded and periodically reconciled from it, and the gate fails open if Redis is down.
+@Service
+public class AvailabilityGate {
+
+  private static final Logger logger = LoggerFactory.getLogger(AvailabilityGate.class);
+
+  private static final String KEY_PREFIX = "ticket:available:";
+  private static final long NOT_SEEDED = -2;
+
+  private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+      "local available = redis.call('GET', KEYS[1]) "
+          + "if not available then return -2 end "
+          + "if tonumber(available) < tonumber(ARGV[1]) then return -1 end "
+          + "return redis.call('DECRBY', KEYS[1], ARGV[1])",
+      Long.class);
+
+  private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+      "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('INCRBY', KEYS[1], ARGV[1]) end "
+          + "return -2",
+      Long.class);
+
+  @Autowired
+  private StringRedisTemplate redisTemplate;
+
+  @Autowired
+  private TicketRepository ticketRepository;
+
+  @Value("${ticket.gate.enabled:true}")
+  private boolean enabled;
+
+  @Value("${ticket.gate.counter-ttl-hours:24}")
+  private long counterTtlHours;
+
+  private final Set<Long> seededEvents = ConcurrentHashMap.newKeySet();
+
+  public boolean tryAcquire(Long eventId, int quantity) {
+    if (!enabled) {
+      return true;
+    }
+    try {
+      Long remaining = acquire(eventId, quantity);
+      if (remaining == NOT_SEEDED) {
+        seed(eventId);
+        remaining = acquire(eventId, quantity);
+      }
+      return remaining >= 0;
+    } catch (DataAccessException e) {
+      logger.warn("Availability gate unavailable for event {}, admitting request: {}", eventId, e.getMessage());
+      return true;
+    }
+  }
+
+  public void release(Long eventId, int quantity) {
+    if (!enabled || quantity <= 0) {
+      return;
+    }
+    try {
+      redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(key(eventId)), String.valueOf(quantity));
+    } catch (DataAccessException e) {
+      logger.warn("Failed to release {} seats for event {} in availability gate: {}", quantity, eventId, e.getMessage());
+    }
+  }
+
+  public void releaseAfterCommit(Long eventId, int quantity) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      release(eventId, quantity);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        release(eventId, quantity);
+      }
+    });
+  }
+
+  // Overwrites the counter with the table's current AVAILABLE count
+  public void reconcile(Long eventId) {
+    if (!enabled) {
+      return;
+    }
+    try {
+      long available = ticketRepository.countByEventIdAndStatus(eventId, Ticket.TicketStatus.AVAILABLE);
+      redisTemplate.opsForValue().set(key(eventId), String.valueOf(available), Duration.ofHours(counterTtlHours));
+      seededEvents.add(eventId);
+    } catch (DataAccessException e) {
+      logger.warn("Failed to reconcile availability gate for event {}: {}", eventId, e.getMessage());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${ticket.gate.reconcile-interval-ms:60000}")
+  public void reconcileSeededEvents() {
+    seededEvents.forEach(this::reconcile);
+  }
+
+  private Long acquire(Long eventId, int quantity) {
+    return redisTemplate.execute(ACQUIRE_SCRIPT, Collections.singletonList(key(eventId)), String.valueOf(quantity));
+  }
+
+  private void seed(Long eventId) {
+    long available = ticketRepository.countByEventIdAndStatus(eventId, Ticket.TicketStatus.AVAILABLE);
+    redisTemplate.opsForValue().setIfAbsent(key(eventId), String.valueOf(available), Duration.ofHours(counterTtlHours));
+    seededEvents.add(eventId);
+  }
+
+  private String key(Long eventId) {
+    return KEY_PREFIX + eventId;
+  }
+}
@@ -0,0 +1,192 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.ticketservice.dto.OrderOutcomeDto;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Confirms or cancels many orders at once: each chunk of order ids is one set-based UPDATE,
+// one transaction and one batched ticket event, instead of a round trip per order. Only held
+// seats change, so repeating a confirm or cancel reports NOT_HELD and announces nothing.
+@Service
+public class BulkTicketService {
+
+  private static final ParameterizedTypeReference<List<OrderOutcomeDto>> OUTCOME_LIST =
+      new ParameterizedTypeReference<List<OrderOutcomeDto>>() {
+      };
+
+  @Autowired
+  private TicketRepository ticketRepository;
+
+  @Autowired
+  private SeatInventoryService seatInventoryService;
+
+  @Autowired
+  private AvailabilityGate availabilityGate;
+
+  @Autowired
+  private AvailabilityBroadcaster availabilityBroadcaster;
+
+  @Autowired
+  private HoldExpiryWheel holdExpiryWheel;
+
+  @Autowired
+  private OutboxPublisher outboxPublisher;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private ShardRouter shardRouter;
+
+  @Value("${ticket.bulk.chunk-size:1000}")
+  private int chunkSize;
+
+  public List<OrderOutcomeDto> confirmOrdersOnOwners(List<Long> orderIds) {
+    return onOwners(orderIds, "/api/tickets/confirm/batch", this::confirmOrders);
+  }
+
+  public List<OrderOutcomeDto> cancelOrdersOnOwners(List<Long> orderIds) {
+    return onOwners(orderIds, "/api/tickets/cancel/batch", this::cancelOrders);
+  }
+
+  public List<OrderOutcomeDto> confirmOrders(List<Long> orderIds) {
+    return inChunks(orderIds, chunk -> {
+      List<TicketRepository.OrderSeat> soldSeats = ticketRepository.sellOrderTickets(chunk);
+      soldSeats.stream().map(TicketRepository.OrderSeat::getEventId).distinct()
+          .forEach(availabilityBroadcaster::markChangedAfterCommit);
+      return complete(chunk, soldSeats, "TICKETS_SOLD_BATCH", "CONFIRMED");
+    });
+  }
+
+  public List<OrderOutcomeDto> cancelOrders(List<Long> orderIds) {
+    return inChunks(orderIds, chunk -> {
+      List<TicketRepository.OrderSeat> releasedSeats = ticketRepository.releaseOrderTickets(chunk);
+
+      // Freed seats become visible to the inventory and the gate once the chunk commits
+      releasedSeats.stream()
+          .collect(Collectors.groupingBy(TicketRepository.OrderSeat::getEventId,
+              Collectors.mapping(TicketRepository.OrderSeat::getId, Collectors.toList())))
+          .forEach((eventId, ticketIds) -> {
+            seatInventoryService.releaseAfterCommit(eventId, ticketIds);
+            availabilityGate.releaseAfterCommit(eventId, ticketIds.size());
+            availabilityBroadcaster.markChangedAfterCommit(eventId);
+          });
+
+      return complete(chunk, releasedSeats, "TICKETS_CANCELLED_BATCH", "CANCELLED");
+    });
+  }
+
+  // Each order is applied on the instance owning its event, so that instance's inventory, gate
+  // and availability stream see the change. Orders holding no tickets anywhere stay here and
+  // come back NOT_HELD; orders whose owner cannot be reached come back UNAVAILABLE.
+  private List<OrderOutcomeDto> onOwners(List<Long> orderIds, String path,
+      Function<List<Long>, List<OrderOutcomeDto>> applyLocally) {
+    if (!shardRouter.isEnabled()) {
+      return applyLocally.apply(orderIds);
+    }
+    List<Long> distinctIds = orderIds.stream().distinct().collect(Collectors.toList());
+    Map<Long, String> ownerByOrder = new HashMap<>();
+    for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+      List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+      for (TicketRepository.OrderEvent orderEvent : ticketRepository.findOrderEvents(chunk)) {
+        ownerByOrder.putIfAbsent(orderEvent.getOrderId(), shardRouter.ownerOf(orderEvent.getEventId()));
+      }
+    }
+    Map<String, List<Long>> ordersByOwner = distinctIds.stream()
+        .collect(Collectors.groupingBy(orderId -> ownerByOrder.getOrDefault(orderId, shardRouter.getSelf()),
+            LinkedHashMap::new, Collectors.toList()));
+
+    Map<Long, OrderOutcomeDto> outcomes = new HashMap<>();
+    ordersByOwner.forEach((owner, ownerOrderIds) -> {
+      List<OrderOutcomeDto> ownerOutcomes = owner.equals(shardRouter.getSelf())
+          ? applyLocally.apply(ownerOrderIds)
+          : forwardToOwner(owner, path, ownerOrderIds);
+      ownerOutcomes.forEach(outcome -> outcomes.put(outcome.getOrderId(), outcome));
+    });
+    return distinctIds.stream()
+        .map(orderId -> outcomes.getOrDefault(orderId, new OrderOutcomeDto(orderId, "UNAVAILABLE", 0)))
+        .collect(Collectors.toList());
+  }
+
+  private List<OrderOutcomeDto> forwardToOwner(String owner, String path, List<Long> orderIds) {
+    ResponseEntity<List<OrderOutcomeDto>> response =
+        shardRouter.forwardTo(owner, HttpMethod.POST, path, orderIds, new HttpHeaders(), OUTCOME_LIST);
+    if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+      return new ArrayList<>();
+    }
+    return response.getBody();
+  }
+
+  private List<OrderOutcomeDto> inChunks(List<Long> orderIds,
+      Function<List<Long>, List<OrderOutcomeDto>> applyChunk) {
+    List<Long> distinctIds = orderIds.stream().distinct().collect(Collectors.toList());
+    List<OrderOutcomeDto> outcomes = new ArrayList<>(distinctIds.size());
+    for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+      List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+      outcomes.addAll(transactionTemplate.execute(status -> applyChunk.apply(chunk)));
+    }
+    return outcomes;
+  }
+
+  private List<OrderOutcomeDto> complete(List<Long> chunk, List<TicketRepository.OrderSeat> seats,
+      String eventType, String outcome) {
+    Map<Long, List<TicketRepository.OrderSeat>> seatsByOrder = seats.stream()
+        .collect(Collectors.groupingBy(TicketRepository.OrderSeat::getOrderId));
+
+    List<OrderOutcomeDto> outcomes = new ArrayList<>(chunk.size());
+    Map<Long, List<Map<String, Object>>> ordersByEvent = new LinkedHashMap<>();
+    for (Long orderId : chunk) {
+      List<TicketRepository.OrderSeat> orderSeats = seatsByOrder.get(orderId);
+      if (orderSeats == null) {
+        outcomes.add(new OrderOutcomeDto(orderId, "NOT_HELD", 0));
+        continue;
+      }
+      holdExpiryWheel.cancelAfterCommit(orderId);
+      outcomes.add(new OrderOutcomeDto(orderId, outcome, orderSeats.size()));
+
+      Map<String, Object> order = new LinkedHashMap<>();
+      order.put("orderId", orderId);
+      order.put("userId", orderSeats.get(0).getUserId());
+      order.put("ticketCount", orderSeats.size());
+      ordersByEvent.computeIfAbsent(orderSeats.get(0).getEventId(), id -> new ArrayList<>()).add(order);
+    }
+
+    // One message per event in the chunk, keyed by that event like every other ticket event
+    ordersByEvent.forEach((ticketEventId, orders) -> {
+      Map<String, Object> payload = new LinkedHashMap<>();
+      payload.put("type", eventType);
+      payload.put("eventId", ticketEventId);
+      payload.put("orders", orders);
+      outboxPublisher.publish("ticket-events", ticketEventId.toString(), eventType, toJson(payload));
+    });
+    return outcomes;
+  }
+
+  private String toJson(Map<String, Object> payload) {
+    try {
+      return objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize ticket event", e);
+    }
+  }
+}
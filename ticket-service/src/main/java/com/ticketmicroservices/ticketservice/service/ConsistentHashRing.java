@@ -0,0 +1,57 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Maps event ids onto members through virtual nodes on a 64-bit hash ring. Each member owns
+// the arcs ending at its virtual nodes, so adding or removing one only moves the events on
+// its own arcs (about 1/N of them) and every other event keeps its owner. Immutable: a
+// membership change builds a new ring.
+public final class ConsistentHashRing {
+
+  private final NavigableMap<Long, String> ring = new TreeMap<>();
+  private final Set<String> members;
+
+  public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+    if (members.isEmpty()) {
+      throw new IllegalArgumentException("Ring needs at least one member");
+    }
+    this.members = Collections.unmodifiableSet(new LinkedHashSet<>(members));
+    for (String member : this.members) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(hash(member + "#" + i), member);
+      }
+    }
+  }
+
+  public String ownerOf(long eventId) {
+    Map.Entry<Long, String> node = ring.ceilingEntry(hash(Long.toString(eventId)));
+    return node != null ? node.getValue() : ring.firstEntry().getValue();
+  }
+
+  public Set<String> getMembers() {
+    return members;
+  }
+
+  // First 8 bytes of MD5: spreads both member names and sequential ids evenly
+  private static long hash(String key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+      long hash = 0;
+      for (int i = 0; i < 8; i++) {
+        hash = (hash << 8) | (digest[i] & 0xff);
+      }
+      return hash;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 not available", e);
+    }
+  }
+}
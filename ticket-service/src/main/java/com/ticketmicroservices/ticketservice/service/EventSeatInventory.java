@@ -0,0 +1,168 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// In-memory availability of one event's seats. Positions follow the seat map (section, row,
+// seat) with a blocked gap slot wherever two neighbouring positions are not physically
+// adjacent, so every free run in the run index is a block of seats a group can sit in.
+// The tickets table stays the source of truth; every change here is written through to it.
+public class EventSeatInventory {
+  public static final long GAP = -1L;
+
+  private final Long eventId;
+  private final long[] ticketIds;
+  private final long[] freeBits;
+  private final long[] sortedTicketIds;
+  private final int[] sortedPositions;
+  private final SeatRunIndex runIndex;
+  private final long builtAt;
+  private int capacity;
+  private int availableCount;
+
+  public EventSeatInventory(Long eventId, long[] ticketIds, long[] freeBits) {
+    this.eventId = eventId;
+    this.ticketIds = ticketIds;
+    this.freeBits = freeBits;
+    this.builtAt = System.currentTimeMillis();
+    this.runIndex = new SeatRunIndex(ticketIds.length);
+
+    for (int position = 0; position < ticketIds.length; position++) {
+      if (ticketIds[position] != GAP) {
+        capacity++;
+      }
+      boolean free = isFree(position);
+      if (free) {
+        availableCount++;
+      }
+      runIndex.load(position, free);
+    }
+    runIndex.rebuild();
+
+    // Ticket id -> position lookup for write-through updates
+    Integer[] order = new Integer[capacity];
+    int next = 0;
+    for (int position = 0; position < ticketIds.length; position++) {
+      if (ticketIds[position] != GAP) {
+        order[next++] = position;
+      }
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(ticketIds[a], ticketIds[b]));
+    this.sortedTicketIds = new long[capacity];
+    this.sortedPositions = new int[capacity];
+    for (int i = 0; i < capacity; i++) {
+      sortedPositions[i] = order[i];
+      sortedTicketIds[i] = ticketIds[order[i]];
+    }
+  }
+
+  public Long getEventId() {
+    return eventId;
+  }
+
+  public long getBuiltAt() {
+    return builtAt;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public synchronized int getAvailableCount() {
+    return availableCount;
+  }
+
+  public synchronized int getLongestAdjacentRun() {
+    return runIndex.longestRun();
+  }
+
+  // Marks the first `quantity` free seats as taken and returns their ticket ids,
+  // or null when not enough seats are free.
+  public synchronized long[] take(int quantity) {
+    if (quantity <= 0 || availableCount < quantity) {
+      return null;
+    }
+
+    long[] taken = new long[quantity];
+    int position = nextFree(0);
+    for (int i = 0; i < quantity; i++) {
+      taken[i] = ticketIds[position];
+      clear(position);
+      position = nextFree(position + 1);
+    }
+    return taken;
+  }
+
+  // Takes the best block of `quantity` adjacent seats: the first one in seat-map order,
+  // i.e. the frontmost row that still fits the whole group. Returns null if none exists.
+  public synchronized long[] takeAdjacent(int quantity) {
+    int start = runIndex.findRun(quantity);
+    if (start < 0) {
+      return null;
+    }
+
+    long[] taken = new long[quantity];
+    for (int i = 0; i < quantity; i++) {
+      taken[i] = ticketIds[start + i];
+      clear(start + i);
+    }
+    return taken;
+  }
+
+  public synchronized void markTaken(Collection<Long> ids) {
+    for (Long id : ids) {
+      int position = positionOf(id);
+      if (position >= 0 && isFree(position)) {
+        clear(position);
+      }
+    }
+  }
+
+  // Seats created after this inventory was built are unknown here and are skipped;
+  // they show up on the next rebuild.
+  public synchronized void markAvailable(Collection<Long> ids) {
+    for (Long id : ids) {
+      int position = positionOf(id);
+      if (position >= 0 && !isFree(position)) {
+        freeBits[position >>> 6] |= 1L << position;
+        runIndex.update(position, true);
+        availableCount++;
+      }
+    }
+  }
+
+  private int positionOf(Long ticketId) {
+    if (ticketId == null) {
+      return -1;
+    }
+    int index = Arrays.binarySearch(sortedTicketIds, ticketId);
+    return index < 0 ? -1 : sortedPositions[index];
+  }
+
+  private boolean isFree(int position) {
+    return (freeBits[position >>> 6] & (1L << position)) != 0;
+  }
+
+  private void clear(int position) {
+    freeBits[position >>> 6] &= ~(1L << position);
+    runIndex.update(position, false);
+    availableCount--;
+  }
+
+  private int nextFree(int from) {
+    int wordIndex = from >>> 6;
+    if (wordIndex >= freeBits.length) {
+      return -1;
+    }
+    long word = freeBits[wordIndex] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+      }
+      if (++wordIndex == freeBits.length) {
+        return -1;
+      }
+      word = freeBits[wordIndex];
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.entity.Ticket;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class HoldExpiryScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+  @Autowired
+  private HoldExpiryWheel holdExpiryWheel;
+
+  @Autowired
+  private TicketService ticketService;
+
+  @Autowired
+  private TicketRepository ticketRepository;
+
+  @Autowired
+  private ShardRouter shardRouter;
+
+  @Value("${ticket.hold.release-batch-size:500}")
+  private int releaseBatchSize;
+
+  @Value("${ticket.hold.release-retry-delay-ms:30000}")
+  private long releaseRetryDelayMs;
+
+  // Reads outstanding holds back from the RESERVED rows (served by the status index). Only the
+  // holds of events this instance owns are tracked; the owners of the rest recover their own.
+  // Runs again after a membership change to pick up the holds of events that moved here.
+  @EventListener(ApplicationReadyEvent.class)
+  public void recoverHolds() {
+    int recovered = 0;
+    for (TicketRepository.ReservedHold hold : ticketRepository.findReservedHolds(Ticket.TicketStatus.RESERVED)) {
+      if (!shardRouter.isOwner(hold.getEventId()) || holdExpiryWheel.isScheduled(hold.getOrderId())) {
+        continue;
+      }
+      long reservedAt = hold.getReservedAt() == null
+          ? System.currentTimeMillis()
+          : hold.getReservedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+      holdExpiryWheel.schedule(hold.getOrderId(), hold.getEventId(), reservedAt + holdExpiryWheel.getTtlMs());
+      recovered++;
+    }
+    logger.info("Recovered {} outstanding ticket holds", recovered);
+  }
+
+  @Scheduled(fixedRateString = "${ticket.hold.tick-ms:1000}")
+  public void expireHolds() {
+    // Holds of events that have since moved to another instance are left to their new owner
+    List<HoldExpiryWheel.Hold> expired = holdExpiryWheel.advance(System.currentTimeMillis()).stream()
+        .filter(hold -> shardRouter.isOwner(hold.getEventId()))
+        .collect(Collectors.toList());
+    for (int from = 0; from < expired.size(); from += releaseBatchSize) {
+      List<HoldExpiryWheel.Hold> batch = expired.subList(from, Math.min(from + releaseBatchSize, expired.size()));
+      try {
+        int released = ticketService.releaseExpiredHolds(batch);
+        logger.info("Released {} tickets from {} expired holds", released, batch.size());
+      } catch (RuntimeException e) {
+        List<Long> orderIds = batch.stream().map(HoldExpiryWheel.Hold::getOrderId).collect(Collectors.toList());
+        logger.error("Failed to release expired holds for orders {}: {}", orderIds, e.getMessage(), e);
+        // Keep the holds so the release is retried instead of leaving the seats stuck in RESERVED
+        long retryAt = System.currentTimeMillis() + releaseRetryDelayMs;
+        batch.forEach(hold -> holdExpiryWheel.schedule(hold.getOrderId(), hold.getEventId(), retryAt));
+      }
+    }
+  }
+}
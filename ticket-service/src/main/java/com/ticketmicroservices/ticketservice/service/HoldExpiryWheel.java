@@ -0,0 +1,162 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+// Hashed timing wheel tracking RESERVED-ticket hold deadlines per order.
+// Scheduling and cancelling are O(1) from any thread; only the ticker thread calling
+// advance() touches the buckets, so outstanding holds cost nothing until their slot comes up.
+@Component
+public class HoldExpiryWheel {
+
+  private final long tickMs;
+  private final long ttlMs;
+  private final int mask;
+  private final Queue<Hold>[] buckets;
+  private final Queue<Hold> pending = new ConcurrentLinkedQueue<>();
+  private final ConcurrentMap<Long, Hold> holdsByOrder = new ConcurrentHashMap<>();
+  private long currentTick = -1;
+
+  @SuppressWarnings("unchecked")
+  public HoldExpiryWheel(@Value("${ticket.hold.tick-ms:1000}") long tickMs,
+      @Value("${ticket.hold.wheel-size:512}") int wheelSize,
+      @Value("${ticket.hold.ttl-seconds:600}") long ttlSeconds) {
+    int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+    this.tickMs = tickMs;
+    this.ttlMs = ttlSeconds * 1000;
+    this.mask = size - 1;
+    this.buckets = new Queue[size];
+    for (int i = 0; i < size; i++) {
+      buckets[i] = new ArrayDeque<>();
+    }
+  }
+
+  public long getTtlMs() {
+    return ttlMs;
+  }
+
+  public int getOutstandingHolds() {
+    return holdsByOrder.size();
+  }
+
+  public boolean isScheduled(Long orderId) {
+    return holdsByOrder.containsKey(orderId);
+  }
+
+  public void schedule(Long orderId, Long eventId, long deadlineMillis) {
+    Hold hold = new Hold(orderId, eventId, deadlineMillis);
+    Hold previous = holdsByOrder.put(orderId, hold);
+    if (previous != null) {
+      previous.cancelled = true;
+    }
+    pending.offer(hold);
+  }
+
+  public void cancel(Long orderId) {
+    Hold hold = holdsByOrder.remove(orderId);
+    if (hold != null) {
+      hold.cancelled = true;
+    }
+  }
+
+  // Holds only start counting down once the reservation has committed
+  public void scheduleAfterCommit(Long orderId, Long eventId) {
+    runAfterCommit(() -> schedule(orderId, eventId, System.currentTimeMillis() + ttlMs));
+  }
+
+  public void cancelAfterCommit(Long orderId) {
+    runAfterCommit(() -> cancel(orderId));
+  }
+
+  // Moves the wheel up to `nowMillis` and returns the holds whose deadline has passed.
+  // Must only be called from a single thread.
+  public List<Hold> advance(long nowMillis) {
+    long targetTick = nowMillis / tickMs;
+    if (currentTick < 0) {
+      currentTick = targetTick;
+    }
+
+    List<Hold> expired = new ArrayList<>();
+    while (currentTick <= targetTick) {
+      transferPending();
+      Iterator<Hold> it = buckets[(int) (currentTick & mask)].iterator();
+      while (it.hasNext()) {
+        Hold hold = it.next();
+        if (hold.cancelled) {
+          it.remove();
+        } else if (hold.remainingRounds > 0) {
+          hold.remainingRounds--;
+        } else {
+          it.remove();
+          if (holdsByOrder.remove(hold.orderId, hold)) {
+            expired.add(hold);
+          }
+        }
+      }
+      currentTick++;
+    }
+    return expired;
+  }
+
+  private void transferPending() {
+    Hold hold;
+    while ((hold = pending.poll()) != null) {
+      if (hold.cancelled) {
+        continue;
+      }
+      long deadlineTick = Math.max(hold.deadlineMillis / tickMs, currentTick);
+      hold.remainingRounds = (deadlineTick - currentTick) / buckets.length;
+      buckets[(int) (deadlineTick & mask)].add(hold);
+    }
+  }
+
+  private void runAfterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  public static class Hold {
+    private final Long orderId;
+    private final Long eventId;
+    private final long deadlineMillis;
+    private long remainingRounds;
+    private volatile boolean cancelled;
+
+    Hold(Long orderId, Long eventId, long deadlineMillis) {
+      this.orderId = orderId;
+      this.eventId = eventId;
+      this.deadlineMillis = deadlineMillis;
+    }
+
+    public Long getOrderId() {
+      return orderId;
+    }
+
+    public Long getEventId() {
+      return eventId;
+    }
+
+    public long getDeadlineMillis() {
+      return deadlineMillis;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.ticketmicroservices.ticketservice.service;
+
+// The order holds no seats any more: its hold expired or was cancelled before the confirm
+public class HoldReleasedException extends RuntimeException {
+
+  public HoldReleasedException(Long orderId) {
+    super("Order " + orderId + " no longer holds any tickets");
+  }
+}
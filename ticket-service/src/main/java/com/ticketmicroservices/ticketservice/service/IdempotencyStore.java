@@ -0,0 +1,67 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Remembers the outcome of requests sent with an Idempotency-Key. Entries hold the result
+// future itself, so a retry that arrives while the first call is still running waits on the
+// same future, and a later replay is answered from memory. Failed calls are forgotten so the
+// client can retry them. Bounded by max-entries and a TTL; the scheduler removes expired
+// entries even when no requests arrive.
+@Component
+public class IdempotencyStore {
+
+  @Value("${ticket.idempotency.max-entries:100000}")
+  private int maxEntries;
+
+  @Value("${ticket.idempotency.ttl-seconds:600}")
+  private long ttlSeconds;
+
+  private Cache<String, CompletableFuture<?>> entries;
+
+  @PostConstruct
+  public void init() {
+    entries = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .scheduler(Scheduler.systemScheduler())
+        .build();
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> action) {
+    if (key == null) {
+      return action.get();
+    }
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    CompletableFuture<?> existing = entries.asMap().putIfAbsent(key, result);
+    if (existing != null) {
+      return (CompletableFuture<T>) existing;
+    }
+
+    CompletableFuture<T> execution;
+    try {
+      execution = action.get();
+    } catch (RuntimeException e) {
+      execution = CompletableFuture.failedFuture(e);
+    }
+    execution.whenComplete((value, error) -> {
+      if (error != null) {
+        entries.asMap().remove(key, result);
+        result.completeExceptionally(error);
+      } else {
+        result.complete(value);
+      }
+    });
+    return result;
+  }
+}
@@ -0,0 +1,9 @@
+package com.ticketmicroservices.ticketservice.service;
+
+// The reservation request itself is unusable, so retrying it cannot help
+public class InvalidReservationException extends RuntimeException {
+
+  public InvalidReservationException(String message) {
+    super(message);
+  }
+}
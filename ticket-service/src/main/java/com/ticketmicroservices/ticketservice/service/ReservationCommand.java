@@ -0,0 +1,50 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.dto.ReserveTicketRequest;
+import com.ticketmicroservices.ticketservice.dto.TicketDto;
+
+import java.util.List;
+
+// One buyer's reservation inside a micro-batch; the batch records each outcome
+// separately so one sold-out request does not fail its neighbours.
+public class ReservationCommand {
+  private final ReserveTicketRequest request;
+  private final Long orderId;
+  private List<TicketDto> reservedTickets;
+  private String failure;
+
+  public ReservationCommand(ReserveTicketRequest request, Long orderId) {
+    this.request = request;
+    this.orderId = orderId;
+  }
+
+  public ReserveTicketRequest getRequest() {
+    return request;
+  }
+
+  public Long getOrderId() {
+    return orderId;
+  }
+
+  public List<TicketDto> getReservedTickets() {
+    return reservedTickets;
+  }
+
+  public String getFailure() {
+    return failure;
+  }
+
+  public boolean isReserved() {
+    return reservedTickets != null;
+  }
+
+  void succeed(List<TicketDto> reservedTickets) {
+    this.reservedTickets = reservedTickets;
+    this.failure = null;
+  }
+
+  void fail(String failure) {
+    this.reservedTickets = null;
+    this.failure = failure;
+  }
+}
@@ -0,0 +1,216 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.dto.ReserveTicketRequest;
+import com.ticketmicroservices.ticketservice.dto.TicketDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Routes every reservation for an event onto one serial lane (events are striped across a
+// fixed number of lanes). Each lane drains its queue in micro-batches and commits a batch in
+// a single transaction, so buyers of the same event never contend for the same rows.
+@Service
+public class ReservationDispatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReservationDispatcher.class);
+
+  private static final String SHUTTING_DOWN = "Reservation service is shutting down, please retry";
+
+  @Autowired
+  private TicketService ticketService;
+
+  @Autowired
+  private AvailabilityGate availabilityGate;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Value("${ticket.dispatch.enabled:true}")
+  private boolean enabled;
+
+  @Value("${ticket.dispatch.lanes:8}")
+  private int laneCount;
+
+  @Value("${ticket.dispatch.queue-capacity:10000}")
+  private int queueCapacity;
+
+  @Value("${ticket.dispatch.max-batch-size:64}")
+  private int maxBatchSize;
+
+  @Value("${ticket.dispatch.shutdown-timeout-ms:5000}")
+  private long shutdownTimeoutMs;
+
+  private Lane[] lanes;
+  private volatile boolean stopping;
+
+  @PostConstruct
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    lanes = new Lane[laneCount];
+    for (int i = 0; i < laneCount; i++) {
+      lanes[i] = new Lane(i);
+      lanes[i].start();
+    }
+  }
+
+  // Lets the batch in flight commit, then fails whatever is still queued so callers are not
+  // left waiting on futures no lane will complete
+  @PreDestroy
+  public void stop() {
+    if (lanes == null) {
+      return;
+    }
+    stopping = true;
+    for (Lane lane : lanes) {
+      lane.interrupt();
+    }
+    long deadline = System.currentTimeMillis() + shutdownTimeoutMs;
+    for (Lane lane : lanes) {
+      try {
+        lane.join(Math.max(1, deadline - System.currentTimeMillis()));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    for (Lane lane : lanes) {
+      lane.failQueued();
+    }
+  }
+
+  public CompletableFuture<List<TicketDto>> submit(ReserveTicketRequest request, Long orderId) {
+    // Caught here, a bad request cannot fail the batch it would otherwise share a transaction with
+    if (request.getEventId() == null || request.getQuantity() == null || request.getQuantity() < 1) {
+      return CompletableFuture.failedFuture(
+          new InvalidReservationException("A reservation needs an event and at least one ticket"));
+    }
+
+    if (!enabled) {
+      try {
+        return CompletableFuture.completedFuture(ticketService.reserveTickets(request, orderId));
+      } catch (RuntimeException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+
+    // Sold-out and oversubscribed requests never reach a lane
+    if (!availabilityGate.tryAcquire(request.getEventId(), request.getQuantity())) {
+      return CompletableFuture.failedFuture(new RuntimeException("Not enough tickets available"));
+    }
+
+    PendingReservation pending = new PendingReservation(new ReservationCommand(request, orderId));
+    Lane lane = lanes[Math.floorMod(request.getEventId().hashCode(), laneCount)];
+    if (stopping || !lane.queue.offer(pending)) {
+      availabilityGate.release(request.getEventId(), request.getQuantity());
+      return CompletableFuture.failedFuture(new RuntimeException(stopping
+          ? SHUTTING_DOWN : "Reservation queue is full, please retry"));
+    }
+    // Lost a race with stop(): it may already have drained this lane
+    if (stopping && lane.queue.remove(pending)) {
+      lane.fail(pending, new RuntimeException(SHUTTING_DOWN));
+    }
+    return pending.result;
+  }
+
+  private class Lane extends Thread {
+    private final BlockingQueue<PendingReservation> queue = new LinkedBlockingQueue<>(queueCapacity);
+    private final DistributionSummary batchSizes;
+
+    Lane(int index) {
+      super("reservation-lane-" + index);
+      setDaemon(true);
+      String lane = String.valueOf(index);
+      Gauge.builder("ticket.reservation.lane.queue.depth", queue, BlockingQueue::size)
+          .tag("lane", lane)
+          .register(meterRegistry);
+      this.batchSizes = DistributionSummary.builder("ticket.reservation.lane.batch.size")
+          .tag("lane", lane)
+          .register(meterRegistry);
+    }
+
+    @Override
+    public void run() {
+      List<PendingReservation> batch = new ArrayList<>(maxBatchSize);
+      while (!isInterrupted()) {
+        try {
+          batch.add(queue.take());
+        } catch (InterruptedException e) {
+          return;
+        }
+        queue.drainTo(batch, maxBatchSize - 1);
+        batchSizes.record(batch.size());
+        process(batch);
+        batch.clear();
+      }
+    }
+
+    private void process(List<PendingReservation> batch) {
+      List<ReservationCommand> commands = new ArrayList<>(batch.size());
+      batch.forEach(pending -> commands.add(pending.command));
+
+      try {
+        ticketService.reserveBatch(commands);
+      } catch (RuntimeException e) {
+        if (batch.size() == 1) {
+          logger.error("Reservation for order {} failed: {}", commands.get(0).getOrderId(), e.getMessage(), e);
+          fail(batch.get(0), e);
+          return;
+        }
+        // The batch rolled back as a whole; one at a time, only the request that threw fails
+        logger.warn("Reservation batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+        for (PendingReservation pending : batch) {
+          process(List.of(pending));
+        }
+        return;
+      }
+
+      // The batch has committed; only now are buyers told they hold their seats
+      for (PendingReservation pending : batch) {
+        if (pending.command.isReserved()) {
+          pending.result.complete(pending.command.getReservedTickets());
+        } else {
+          fail(pending, new RuntimeException(pending.command.getFailure()));
+        }
+      }
+    }
+
+    private void failQueued() {
+      List<PendingReservation> queued = new ArrayList<>();
+      queue.drainTo(queued);
+      if (!queued.isEmpty()) {
+        logger.warn("Failing {} queued reservations on {} at shutdown", queued.size(), getName());
+      }
+      queued.forEach(pending -> fail(pending, new RuntimeException(SHUTTING_DOWN)));
+    }
+
+    private void fail(PendingReservation pending, RuntimeException cause) {
+      ReserveTicketRequest request = pending.command.getRequest();
+      availabilityGate.release(request.getEventId(), request.getQuantity());
+      pending.result.completeExceptionally(cause);
+    }
+  }
+
+  private static class PendingReservation {
+    private final ReservationCommand command;
+    private final CompletableFuture<List<TicketDto>> result = new CompletableFuture<>();
+
+    PendingReservation(ReservationCommand command) {
+      this.command = command;
+    }
+  }
+}
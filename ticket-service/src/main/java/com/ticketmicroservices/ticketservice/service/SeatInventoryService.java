@@ -0,0 +1,134 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.entity.SeatCode;
+import com.ticketmicroservices.ticketservice.entity.Ticket;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+public class SeatInventoryService {
+
+  private static final Logger logger = LoggerFactory.getLogger(SeatInventoryService.class);
+
+  @Autowired
+  private TicketRepository ticketRepository;
+
+  @Value("${ticket.inventory.enabled:true}")
+  private boolean enabled;
+
+  @Value("${ticket.inventory.max-staleness-ms:5000}")
+  private long maxStalenessMs;
+
+  private final ConcurrentMap<Long, EventSeatInventory> inventories = new ConcurrentHashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  // Loads the event on first use; later calls are served from memory
+  public EventSeatInventory get(Long eventId) {
+    return inventories.computeIfAbsent(eventId, this::load);
+  }
+
+  public EventSeatInventory getIfLoaded(Long eventId) {
+    return inventories.get(eventId);
+  }
+
+  public EventSeatInventory rebuild(Long eventId) {
+    EventSeatInventory inventory = load(eventId);
+    inventories.put(eventId, inventory);
+    return inventory;
+  }
+
+  // Rebuilds only if the current snapshot is older than the staleness bound, so a sold-out
+  // event costs at most one reload per interval instead of one per request.
+  public EventSeatInventory rebuildIfStale(EventSeatInventory inventory) {
+    if (System.currentTimeMillis() - inventory.getBuiltAt() < maxStalenessMs) {
+      return inventory;
+    }
+    return rebuild(inventory.getEventId());
+  }
+
+  public void evict(Long eventId) {
+    inventories.remove(eventId);
+  }
+
+  public Set<Long> loadedEventIds() {
+    return new HashSet<>(inventories.keySet());
+  }
+
+  // Seats taken from the inventory go back if the surrounding transaction rolls back
+  public void restoreOnRollback(EventSeatInventory inventory, List<Long> ticketIds) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_ROLLED_BACK) {
+          inventory.markAvailable(ticketIds);
+        }
+      }
+    });
+  }
+
+  // Released seats only become visible once the release has committed
+  public void releaseAfterCommit(Long eventId, List<Long> ticketIds) {
+    EventSeatInventory inventory = inventories.get(eventId);
+    if (inventory == null || ticketIds.isEmpty()) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      inventory.markAvailable(ticketIds);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        inventory.markAvailable(ticketIds);
+      }
+    });
+  }
+
+  private EventSeatInventory load(Long eventId) {
+    List<TicketRepository.SeatState> seats = ticketRepository.findSeatStatesByEventId(eventId);
+
+    // Lay seats out in seat-map order with a gap slot between seats that are not side by side
+    long[] ticketIds = new long[seats.size() * 2];
+    long[] freeBits = new long[(ticketIds.length + 63) >>> 6];
+    int position = 0;
+    TicketRepository.SeatState previous = null;
+    for (TicketRepository.SeatState seat : seats) {
+      if (previous != null && !SeatCode.isAdjacent(previous.getSeatCode(), seat.getSeatCode())) {
+        ticketIds[position++] = EventSeatInventory.GAP;
+      }
+      ticketIds[position] = seat.getId();
+      if (seat.getStatus() == Ticket.TicketStatus.AVAILABLE) {
+        freeBits[position >>> 6] |= 1L << position;
+      }
+      position++;
+      previous = seat;
+    }
+
+    EventSeatInventory inventory = new EventSeatInventory(
+        eventId,
+        Arrays.copyOf(ticketIds, position),
+        Arrays.copyOf(freeBits, (position + 63) >>> 6));
+    logger.info("Loaded seat inventory for event {}: {} seats, {} available",
+        eventId, inventory.getCapacity(), inventory.getAvailableCount());
+    return inventory;
+  }
+}
@@ -0,0 +1,121 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.dto.ProvisioningStatusDto;
+import com.ticketmicroservices.ticketservice.entity.SeatCode;
+import com.ticketmicroservices.ticketservice.entity.TicketProvisioning;
+import com.ticketmicroservices.ticketservice.repository.TicketProvisioningRepository;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+@Service
+public class SeatProvisioningService {
+
+  private static final Logger logger = LoggerFactory.getLogger(SeatProvisioningService.class);
+
+  @Autowired
+  private TicketRepository ticketRepository;
+
+  @Autowired
+  private TicketProvisioningRepository provisioningRepository;
+
+  @Autowired
+  private SeatInventoryService seatInventoryService;
+
+  @Autowired
+  private AvailabilityGate availabilityGate;
+
+  @Autowired
+  private TicketPartitionService ticketPartitionService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Value("${ticket.provisioning.batch-size:10000}")
+  private int batchSize;
+
+  @Value("${ticket.provisioning.seats-per-row:20}")
+  private int seatsPerRow;
+
+  @Value("${ticket.provisioning.rows-per-section:25}")
+  private int rowsPerSection;
+
+  // Safe to call repeatedly: every chunk commits its seats together with the progress
+  // counter, so a redelivered or interrupted run resumes where the last commit left off.
+  public ProvisioningStatusDto provisionSeats(Long eventId, int totalTickets, Double ticketPrice) {
+    // Every generated seat must fit its seat code
+    int sections = (totalTickets + seatsPerRow * rowsPerSection - 1) / (seatsPerRow * rowsPerSection);
+    if (seatsPerRow > SeatCode.MAX_SEAT || rowsPerSection > SeatCode.MAX_ROW || sections > SeatCode.MAX_SECTION) {
+      throw new RuntimeException("Seat layout too large for event " + eventId);
+    }
+
+    ticketPartitionService.createPartition(eventId);
+    startProvisioning(eventId, totalTickets, ticketPrice);
+
+    long startedAt = System.currentTimeMillis();
+    boolean done = false;
+    while (!done) {
+      done = transactionTemplate.execute(status -> provisionNextChunk(eventId));
+    }
+
+    // Drop stale in-memory views so the next reservation sees the new seats
+    seatInventoryService.evict(eventId);
+    availabilityGate.reconcile(eventId);
+
+    ProvisioningStatusDto progress = getProvisioningStatus(eventId);
+    logger.info("Provisioned {} seats for event {} in {} ms",
+        progress.getProvisionedTickets(), eventId, System.currentTimeMillis() - startedAt);
+    return progress;
+  }
+
+  public ProvisioningStatusDto getProvisioningStatus(Long eventId) {
+    TicketProvisioning provisioning = provisioningRepository.findById(eventId)
+        .orElseThrow(() -> new RuntimeException("No seat provisioning found for event"));
+    return new ProvisioningStatusDto(
+        provisioning.getEventId(),
+        provisioning.getTotalTickets(),
+        provisioning.getProvisionedTickets(),
+        provisioning.getStatus().toString());
+  }
+
+  private void startProvisioning(Long eventId, int totalTickets, Double ticketPrice) {
+    if (provisioningRepository.existsById(eventId)) {
+      return;
+    }
+    try {
+      provisioningRepository.saveAndFlush(new TicketProvisioning(eventId, totalTickets, ticketPrice));
+    } catch (DataIntegrityViolationException e) {
+      // Another consumer registered the same event first
+      logger.info("Seat provisioning for event {} already registered", eventId);
+    }
+  }
+
+  private boolean provisionNextChunk(Long eventId) {
+    // Row lock serialises concurrent runs for the same event
+    TicketProvisioning provisioning = provisioningRepository.findByIdForUpdate(eventId)
+        .orElseThrow(() -> new RuntimeException("No seat provisioning found for event"));
+
+    int from = provisioning.getProvisionedTickets();
+    int to = Math.min(from + batchSize, provisioning.getTotalTickets());
+    if (from < to) {
+      ticketRepository.insertSeatRange(eventId, provisioning.getTicketPrice(),
+          seatsPerRow, seatsPerRow * rowsPerSection, from, to);
+      provisioning.setProvisionedTickets(to);
+    }
+
+    boolean done = to >= provisioning.getTotalTickets();
+    if (done) {
+      provisioning.setStatus(TicketProvisioning.ProvisioningStatus.COMPLETED);
+    }
+    provisioning.setUpdatedAt(LocalDateTime.now());
+    provisioningRepository.save(provisioning);
+    return done;
+  }
+}
@@ -0,0 +1,83 @@
+package com.ticketmicroservices.ticketservice.service;
+
+// Segment tree over seat positions that tracks runs of free seats. Every node keeps the
+// free prefix, free suffix and longest free run of its range, so both updates and
+// "leftmost block of N free seats" queries are O(log n).
+class SeatRunIndex {
+  private final int size;
+  private final int[] prefix;
+  private final int[] suffix;
+  private final int[] longest;
+
+  SeatRunIndex(int positions) {
+    int capacity = 1;
+    while (capacity < Math.max(positions, 1)) {
+      capacity <<= 1;
+    }
+    this.size = capacity;
+    this.prefix = new int[2 * capacity];
+    this.suffix = new int[2 * capacity];
+    this.longest = new int[2 * capacity];
+  }
+
+  // Sets a leaf without recomputing parents; call rebuild() once all leaves are loaded
+  void load(int position, boolean free) {
+    int value = free ? 1 : 0;
+    int node = size + position;
+    prefix[node] = value;
+    suffix[node] = value;
+    longest[node] = value;
+  }
+
+  void rebuild() {
+    for (int node = size - 1; node > 0; node--) {
+      pull(node);
+    }
+  }
+
+  void update(int position, boolean free) {
+    load(position, free);
+    for (int node = (size + position) >>> 1; node > 0; node >>>= 1) {
+      pull(node);
+    }
+  }
+
+  int longestRun() {
+    return longest[1];
+  }
+
+  // Returns the first position of the leftmost run of `length` free seats, or -1
+  int findRun(int length) {
+    if (length <= 0 || longest[1] < length) {
+      return -1;
+    }
+
+    int node = 1;
+    int start = 0;
+    int span = size;
+    while (span > 1) {
+      int half = span >>> 1;
+      int left = node << 1;
+      int right = left + 1;
+      if (longest[left] >= length) {
+        node = left;
+      } else if (suffix[left] + prefix[right] >= length) {
+        return start + half - suffix[left];
+      } else {
+        node = right;
+        start += half;
+      }
+      span = half;
+    }
+    return start;
+  }
+
+  private void pull(int node) {
+    int left = node << 1;
+    int right = left + 1;
+    int half = size >>> (31 - Integer.numberOfLeadingZeros(left));
+    prefix[node] = prefix[left] == half ? half + prefix[right] : prefix[left];
+    suffix[node] = suffix[right] == half ? half + suffix[left] : suffix[right];
+    longest[node] = Math.max(Math.max(longest[left], longest[right]), suffix[left] + prefix[right]);
+  }
+}
@@ -0,0 +1,182 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.config.InternalApiConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// Gives every event one owning instance so its in-memory seat inventory and reservation lane
+// live in a single place. Instances are identified by their base URL; calls for an event this
+// instance does not own are forwarded to the owner. Membership comes from configuration and
+// can be replaced at runtime on each instance through the internal API.
+@Service
+public class ShardRouter {
+
+  // Set on forwarded calls; a forwarded call is always served where it lands, so two instances
+  // that briefly disagree about membership cannot bounce a request between them. It only counts
+  // together with the internal token, so a client cannot use it to skip routing.
+  public static final String FORWARDED_HEADER = "X-Shard-Forwarded-By";
+
+  // Connection-level headers of the owner's response; the servlet container sets its own
+  private static final List<String> HOP_BY_HOP_HEADERS = Arrays.asList(
+      HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH,
+      "Keep-Alive", HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.TRAILER, HttpHeaders.UPGRADE);
+
+  private static final Logger logger = LoggerFactory.getLogger(ShardRouter.class);
+
+  @Autowired
+  private SeatInventoryService seatInventoryService;
+
+  @Autowired
+  private RestTemplateBuilder restTemplateBuilder;
+
+  @Value("${ticket.sharding.enabled:false}")
+  private boolean enabled;
+
+  @Value("${ticket.sharding.self:http://localhost:8080}")
+  private String self;
+
+  @Value("${ticket.sharding.members:}")
+  private List<String> configuredMembers;
+
+  @Value("${ticket.sharding.virtual-nodes:160}")
+  private int virtualNodes;
+
+  @Value("${ticket.sharding.forward-timeout-ms:5000}")
+  private long forwardTimeoutMs;
+
+  @Value("${ticket.internal.token:}")
+  private String internalToken;
+
+  private volatile ConsistentHashRing ring;
+
+  private RestTemplate restTemplate;
+
+  @PostConstruct
+  public void init() {
+    ring = buildRing(configuredMembers);
+    restTemplate = restTemplateBuilder
+        .setConnectTimeout(Duration.ofMillis(forwardTimeoutMs))
+        .setReadTimeout(Duration.ofMillis(forwardTimeoutMs))
+        .build();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public String getSelf() {
+    return self;
+  }
+
+  public Set<String> getMembers() {
+    return ring.getMembers();
+  }
+
+  public boolean isForwarded(String forwardedBy, String presentedToken) {
+    return forwardedBy != null && InternalApiConfig.tokenMatches(internalToken, presentedToken);
+  }
+
+  // Calls without an event id cannot be routed and are served locally
+  public boolean isOwner(Long eventId) {
+    return !enabled || eventId == null || self.equals(ring.ownerOf(eventId));
+  }
+
+  public String ownerOf(Long eventId) {
+    return ring.ownerOf(eventId);
+  }
+
+  // Swaps in a new ring and drops the inventories of events that moved to another instance,
+  // so a later move back reloads them instead of trusting a stale snapshot
+  public Set<String> updateMembers(List<String> members) {
+    ring = buildRing(members);
+    for (Long eventId : seatInventoryService.loadedEventIds()) {
+      if (!isOwner(eventId)) {
+        seatInventoryService.evict(eventId);
+      }
+    }
+    logger.info("Shard membership is now {}", ring.getMembers());
+    return ring.getMembers();
+  }
+
+  public <T> ResponseEntity<T> forward(Long eventId, HttpMethod method, String pathAndQuery, Object body,
+      HttpHeaders headers, ParameterizedTypeReference<T> responseType) {
+    return forwardTo(ownerOf(eventId), method, pathAndQuery, body, headers, responseType);
+  }
+
+  public <T> ResponseEntity<T> forwardTo(String owner, HttpMethod method, String pathAndQuery, Object body,
+      HttpHeaders headers, ParameterizedTypeReference<T> responseType) {
+    HttpHeaders forwardHeaders = new HttpHeaders();
+    forwardHeaders.addAll(headers);
+    forwardHeaders.set(FORWARDED_HEADER, self);
+    if (internalToken != null && !internalToken.isBlank()) {
+      forwardHeaders.set(InternalApiConfig.TOKEN_HEADER, internalToken);
+    }
+    String url = owner + pathAndQuery;
+    try {
+      ResponseEntity<T> response =
+          restTemplate.exchange(url, method, new HttpEntity<>(body, forwardHeaders), responseType);
+      HttpHeaders responseHeaders = new HttpHeaders();
+      response.getHeaders().forEach((name, values) -> {
+        if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+          responseHeaders.put(name, values);
+        }
+      });
+      return new ResponseEntity<>(response.getBody(), responseHeaders, response.getStatusCode());
+    } catch (HttpStatusCodeException e) {
+      // The owner's answer is passed on as-is, minus its error body
+      return ResponseEntity.status(e.getStatusCode()).build();
+    } catch (ResourceAccessException e) {
+      // Serving locally would split the event's inventory, so the client retries instead
+      logger.warn("Shard owner {} is unreachable: {}", owner, e.getMessage());
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+  }
+
+  private ConsistentHashRing buildRing(List<String> members) {
+    List<String> ringMembers = new ArrayList<>();
+    for (String member : members) {
+      if (!member.isBlank()) {
+        ringMembers.add(requireBaseUrl(member.trim()));
+      }
+    }
+    if (!ringMembers.contains(self)) {
+      ringMembers.add(self);
+    }
+    return new ConsistentHashRing(ringMembers, virtualNodes);
+  }
+
+  private static String requireBaseUrl(String member) {
+    URI uri;
+    try {
+      uri = URI.create(member);
+    } catch (IllegalArgumentException e) {
+      throw new RuntimeException("Invalid shard member " + member);
+    }
+    if (!("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) || uri.getHost() == null
+        || (uri.getPath() != null && !uri.getPath().isEmpty()) || uri.getQuery() != null) {
+      throw new RuntimeException("Shard member must be a base URL like http://host:port, was " + member);
+    }
+    return member;
+  }
+}
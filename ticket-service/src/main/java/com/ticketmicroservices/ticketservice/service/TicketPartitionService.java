@@ -0,0 +1,88 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Manages the per-event partitions of the LIST-partitioned tickets table (created in
+// db/migration/V1__baseline_schema.sql). Event ids are Longs, so building the DDL from them
+// cannot inject anything.
+@Service
+public class TicketPartitionService {
+
+  private static final Logger logger = LoggerFactory.getLogger(TicketPartitionService.class);
+
+  private static final String ARCHIVE_SCHEMA = "ticket_archive";
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private SeatInventoryService seatInventoryService;
+
+  // CREATE TABLE ... PARTITION OF would hold an ACCESS EXCLUSIVE lock on tickets, stalling
+  // every event's reservations. The partition is built standalone instead and attached, which
+  // only needs SHARE UPDATE EXCLUSIVE on tickets; the CHECK matching the bound spares ATTACH a
+  // scan of the new table. Seats the event already has in tickets_default move along with it.
+  public void createPartition(Long eventId) {
+    String partition = partitionName(eventId);
+    transactionTemplate.execute(status -> {
+      // Serializes concurrent provisioning of the same event
+      jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(hashtext('tickets_partition'), "
+          + eventId.hashCode() + ")");
+      if (isAttached(partition)) {
+        return null;
+      }
+      jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE tickets INCLUDING DEFAULTS)");
+      jdbcTemplate.execute("ALTER TABLE " + partition + " ADD CONSTRAINT " + partition + "_bound "
+          + "CHECK (event_id IS NOT NULL AND event_id = " + eventId + ")");
+      int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM tickets_default WHERE event_id = " + eventId
+          + " RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+      jdbcTemplate.execute("ALTER TABLE tickets ATTACH PARTITION " + partition + " FOR VALUES IN (" + eventId + ")");
+      jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT " + partition + "_bound");
+      if (moved > 0) {
+        logger.info("Moved {} seats of event {} out of tickets_default", moved, eventId);
+      }
+      return null;
+    });
+  }
+
+  // Detaches a finished event's seats and parks them in the archive schema, out of the
+  // live table's indexes and vacuum work
+  public void archivePartition(Long eventId) {
+    String partition = partitionName(eventId);
+    transactionTemplate.execute(status -> {
+      if (!isAttached(partition)) {
+        throw new RuntimeException("Event " + eventId + " has no ticket partition");
+      }
+      Long held = jdbcTemplate.queryForObject(
+          "SELECT count(*) FROM " + partition + " WHERE status = 'RESERVED'", Long.class);
+      if (held != null && held > 0) {
+        throw new RuntimeException("Event still has " + held + " reserved tickets");
+      }
+      jdbcTemplate.execute("ALTER TABLE tickets DETACH PARTITION " + partition);
+      jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+      jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+      return null;
+    });
+    seatInventoryService.evict(eventId);
+    logger.info("Archived ticket partition {} to schema {}", partition, ARCHIVE_SCHEMA);
+  }
+
+  private boolean isAttached(String partition) {
+    Boolean attached = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits i "
+        + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'tickets'::regclass "
+        + "AND c.relname = ?)", Boolean.class, partition);
+    return Boolean.TRUE.equals(attached);
+  }
+
+  private String partitionName(Long eventId) {
+    return "tickets_e" + eventId;
+  }
+}
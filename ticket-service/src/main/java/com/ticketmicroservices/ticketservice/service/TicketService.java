@@ -1,108 +1,385 @@
 package com.ticketmicroservices.ticketservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.ticketservice.config.ReplicaRoutingDataSource;
+import com.ticketmicroservices.ticketservice.dto.CursorPageDto;
+import com.ticketmicroservices.ticketservice.dto.EventAvailabilityDto;
 import com.ticketmicroservices.ticketservice.dto.ReserveTicketRequest;
 import com.ticketmicroservices.ticketservice.dto.TicketDto;
 import com.ticketmicroservices.ticketservice.entity.Ticket;
 import com.ticketmicroservices.ticketservice.repository.TicketRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 @Service
 public class TicketService {
 
+  private static final int MAX_PAGE_SIZE = 500;
+
   @Autowired
   private TicketRepository ticketRepository;
 
   @Autowired
-  private KafkaTemplate<String, String> kafkaTemplate;
+  private SeatInventoryService seatInventoryService;
 
-  @Transactional
-  public List<TicketDto> reserveTickets(ReserveTicketRequest request, Long orderId) {
-    // Check if enough tickets are available
-    long availableCount = ticketRepository.countByEventIdAndStatus(request.getEventId(), Ticket.TicketStatus.AVAILABLE);
+  @Autowired
+  private AvailabilityGate availabilityGate;
+
+  @Autowired
+  private HoldExpiryWheel holdExpiryWheel;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private OutboxPublisher outboxPublisher;
+
+  @Autowired
+  private ObjectMapper objectMapper;
 
-    if (availableCount < request.getQuantity()) {
+  @Autowired
+  private OptimisticRetry optimisticRetry;
+
+  @Autowired
+  private AvailabilityBroadcaster availabilityBroadcaster;
+
+  public List<TicketDto> reserveTickets(ReserveTicketRequest request, Long orderId) {
+    // Sold-out and oversubscribed requests are turned away before opening a transaction
+    if (!availabilityGate.tryAcquire(request.getEventId(), request.getQuantity())) {
       throw new RuntimeException("Not enough tickets available");
     }
 
-    // Reserve tickets
-    List<Ticket> availableTickets = ticketRepository.findByEventIdAndStatus(
-        request.getEventId(),
-        Ticket.TicketStatus.AVAILABLE);
-
-    List<Ticket> reservedTickets = availableTickets.stream()
-        .limit(request.getQuantity())
-        .map(ticket -> {
-          ticket.setStatus(Ticket.TicketStatus.RESERVED);
-          ticket.setUserId(request.getUserId());
-          ticket.setOrderId(orderId);
-          return ticket;
-        })
-        .collect(Collectors.toList());
+    try {
+      return transactionTemplate.execute(status -> claimTickets(request, orderId));
+    } catch (RuntimeException e) {
+      availabilityGate.release(request.getEventId(), request.getQuantity());
+      throw e;
+    }
+  }
 
-    reservedTickets = ticketRepository.saveAll(reservedTickets);
+  // A concurrent expiry or cancel forces a retry, which throws HoldReleasedException once the
+  // seats are gone; an order that is already sold gets its tickets back without a second event
+  public List<TicketDto> confirmTickets(Long orderId, Long eventId) {
+    return optimisticRetry.execute("confirmTickets", () -> {
+      List<Ticket> orderTickets = findOrderTickets(orderId, eventId);
+      if (orderTickets.isEmpty()) {
+        throw new HoldReleasedException(orderId);
+      }
 
-    // Send ticket reservation event
-    kafkaTemplate.send("ticket-events", "TICKETS_RESERVED", orderId.toString());
+      List<Ticket> reservedTickets = orderTickets.stream()
+          .filter(ticket -> ticket.getStatus() == Ticket.TicketStatus.RESERVED)
+          .collect(Collectors.toList());
+      if (!reservedTickets.isEmpty()) {
+        reservedTickets.forEach(ticket -> {
+          ticket.setStatus(Ticket.TicketStatus.SOLD);
+        });
 
-    return reservedTickets.stream().map(this::convertToDto).collect(Collectors.toList());
-  }
+        ticketRepository.saveAll(reservedTickets);
+        holdExpiryWheel.cancelAfterCommit(orderId);
+        reservedTickets.stream().map(Ticket::getEventId).distinct()
+            .forEach(availabilityBroadcaster::markChangedAfterCommit);
 
-  @Transactional
-  public List<TicketDto> confirmTickets(Long orderId) {
-    List<Ticket> reservedTickets = ticketRepository.findByOrderId(orderId);
+        // Send ticket confirmation event
+        outboxPublisher.publish("ticket-events", orderTickets.get(0).getEventId().toString(), "TICKETS_SOLD",
+            orderId.toString());
+      }
 
-    reservedTickets.forEach(ticket -> {
-      ticket.setStatus(Ticket.TicketStatus.SOLD);
+      return orderTickets.stream().map(this::convertToDto).collect(Collectors.toList());
     });
+  }
 
-    reservedTickets = ticketRepository.saveAll(reservedTickets);
+  public void cancelTickets(Long orderId, Long eventId) {
+    optimisticRetry.execute("cancelTickets", () -> {
+      List<Ticket> reservedTickets = findOrderTickets(orderId, eventId);
 
-    // Send ticket confirmation event
-    kafkaTemplate.send("ticket-events", "TICKETS_SOLD", orderId.toString());
+      reservedTickets.forEach(ticket -> {
+        ticket.setStatus(Ticket.TicketStatus.AVAILABLE);
+        ticket.setUserId(null);
+        ticket.setOrderId(null);
+      });
 
-    return reservedTickets.stream().map(this::convertToDto).collect(Collectors.toList());
+      ticketRepository.saveAll(reservedTickets);
+      holdExpiryWheel.cancelAfterCommit(orderId);
+
+      // Freed seats become visible to the inventory and the gate once the release commits
+      reservedTickets.stream()
+          .collect(Collectors.groupingBy(Ticket::getEventId, Collectors.mapping(Ticket::getId, Collectors.toList())))
+          .forEach((ticketEventId, ticketIds) -> {
+            seatInventoryService.releaseAfterCommit(ticketEventId, ticketIds);
+            availabilityGate.releaseAfterCommit(ticketEventId, ticketIds.size());
+            availabilityBroadcaster.markChangedAfterCommit(ticketEventId);
+          });
+
+      // Send ticket cancellation event; an order that holds nothing any more is keyed by itself
+      Long ticketEventId = reservedTickets.isEmpty() ? eventId : reservedTickets.get(0).getEventId();
+      outboxPublisher.publish("ticket-events", String.valueOf(ticketEventId != null ? ticketEventId : orderId),
+          "TICKETS_CANCELLED", orderId.toString());
+      return null;
+    });
   }
 
   @Transactional
-  public void cancelTickets(Long orderId) {
-    List<Ticket> reservedTickets = ticketRepository.findByOrderId(orderId);
+  public int releaseExpiredHolds(List<HoldExpiryWheel.Hold> holds) {
+    List<Long> eventIds = holds.stream().map(HoldExpiryWheel.Hold::getEventId).distinct().collect(Collectors.toList());
+    List<Long> orderIds = holds.stream().map(HoldExpiryWheel.Hold::getOrderId).collect(Collectors.toList());
+    List<TicketRepository.ReleasedSeat> releasedSeats = ticketRepository.releaseReservedTickets(eventIds, orderIds);
 
-    reservedTickets.forEach(ticket -> {
-      ticket.setStatus(Ticket.TicketStatus.AVAILABLE);
-      ticket.setUserId(null);
-      ticket.setOrderId(null);
-    });
+    releasedSeats.stream()
+        .collect(Collectors.groupingBy(TicketRepository.ReleasedSeat::getEventId,
+            Collectors.mapping(TicketRepository.ReleasedSeat::getId, Collectors.toList())))
+        .forEach((ticketEventId, ticketIds) -> {
+          seatInventoryService.releaseAfterCommit(ticketEventId, ticketIds);
+          availabilityGate.releaseAfterCommit(ticketEventId, ticketIds.size());
+          availabilityBroadcaster.markChangedAfterCommit(ticketEventId);
+        });
+
+    // Send ticket cancellation event for every order whose hold expired
+    releasedSeats.stream()
+        .collect(Collectors.toMap(TicketRepository.ReleasedSeat::getOrderId, TicketRepository.ReleasedSeat::getEventId,
+            (first, second) -> first, LinkedHashMap::new))
+        .forEach((orderId, ticketEventId) -> outboxPublisher.publish("ticket-events", ticketEventId.toString(),
+            "TICKETS_CANCELLED", orderId.toString()));
+
+    return releasedSeats.size();
+  }
+
+  // Loading the inventory here seeds what reservations claim from, so it never reads a replica
+  public EventAvailabilityDto getAvailability(Long eventId) {
+    long available = ReplicaRoutingDataSource.onPrimary(() -> seatInventoryService.isEnabled()
+        ? seatInventoryService.get(eventId).getAvailableCount()
+        : ticketRepository.countByEventIdAndStatus(eventId, Ticket.TicketStatus.AVAILABLE));
+    return new EventAvailabilityDto(eventId, available);
+  }
+
+  // Resynchronises the in-memory inventory and the Redis gate with the tickets table
+  public EventAvailabilityDto rebuildInventory(Long eventId) {
+    EventSeatInventory inventory = seatInventoryService.rebuild(eventId);
+    availabilityGate.reconcile(eventId);
+    return new EventAvailabilityDto(eventId, (long) inventory.getAvailableCount());
+  }
+
+  @Transactional(readOnly = true)
+  public CursorPageDto<TicketDto> getTicketPageByUser(Long userId, Long cursor, int limit) {
+    int pageSize = pageSize(limit);
+    List<TicketRepository.TicketView> tickets = ticketRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+        userId, cursorOrStart(cursor), PageRequest.of(0, pageSize + 1));
+    return toPage(tickets, pageSize);
+  }
 
-    ticketRepository.saveAll(reservedTickets);
+  @Transactional(readOnly = true)
+  public CursorPageDto<TicketDto> getTicketPageByOrder(Long orderId, Long cursor, int limit) {
+    int pageSize = pageSize(limit);
+    List<TicketRepository.TicketView> tickets = ticketRepository.findByOrderIdAndIdLessThanOrderByIdDesc(
+        orderId, cursorOrStart(cursor), PageRequest.of(0, pageSize + 1));
+    return toPage(tickets, pageSize);
+  }
 
-    // Send ticket cancellation event
-    kafkaTemplate.send("ticket-events", "TICKETS_CANCELLED", orderId.toString());
+  // Writes the user's tickets as newline-delimited JSON straight from a database cursor
+  @Transactional(readOnly = true)
+  public void streamTicketsByUser(Long userId, OutputStream out) throws IOException {
+    try (Stream<TicketRepository.TicketView> tickets = ticketRepository.streamByUserIdOrderByIdDesc(userId)) {
+      Iterator<TicketRepository.TicketView> it = tickets.iterator();
+      while (it.hasNext()) {
+        out.write(objectMapper.writeValueAsBytes(convertToDto(it.next())));
+        out.write('\n');
+      }
+    }
+    out.flush();
   }
 
+  @Transactional(readOnly = true)
   public List<TicketDto> getTicketsByUser(Long userId) {
     List<Ticket> tickets = ticketRepository.findByUserId(userId);
     return tickets.stream().map(this::convertToDto).collect(Collectors.toList());
   }
 
-  public List<TicketDto> getTicketsByOrder(Long orderId) {
-    List<Ticket> tickets = ticketRepository.findByOrderId(orderId);
+  @Transactional(readOnly = true)
+  public List<TicketDto> getTicketsByOrder(Long orderId, Long eventId) {
+    List<Ticket> tickets = findOrderTickets(orderId, eventId);
     return tickets.stream().map(this::convertToDto).collect(Collectors.toList());
   }
 
-  private TicketDto convertToDto(Ticket ticket) {
+  // Tickets never change event, so any of the order's rows names the shard that owns it
+  @Transactional(readOnly = true)
+  public Long findEventIdOfOrder(Long orderId) {
+    List<TicketRepository.OrderEvent> orderEvents = ticketRepository.findOrderEvents(List.of(orderId));
+    return orderEvents.isEmpty() ? null : orderEvents.get(0).getEventId();
+  }
+
+  // Callers that know the event get a single-partition lookup; otherwise every partition is probed
+  private List<Ticket> findOrderTickets(Long orderId, Long eventId) {
+    return eventId == null
+        ? ticketRepository.findByOrderId(orderId)
+        : ticketRepository.findByEventIdAndOrderId(eventId, orderId);
+  }
+
+  private List<TicketDto> claimTickets(ReserveTicketRequest request, Long orderId) {
+    List<Ticket> reservedTickets = claimSeats(request, orderId);
+
+    if (reservedTickets.size() < request.getQuantity()) {
+      // Rolls back the partial claim
+      throw new RuntimeException("Not enough tickets available");
+    }
+
+    return completeReservation(request, orderId, reservedTickets);
+  }
+
+  // Reserves a micro-batch of requests in one transaction. A request that cannot be
+  // satisfied has its partial claim undone and is marked failed; the rest still commit. An
+  // exception rolls back the whole batch, and the dispatcher retries its requests one by one.
+  public void reserveBatch(List<ReservationCommand> commands) {
+    transactionTemplate.execute(status -> {
+      for (ReservationCommand command : commands) {
+        ReserveTicketRequest request = command.getRequest();
+        List<Ticket> reservedTickets = claimSeats(request, command.getOrderId());
+
+        if (reservedTickets.size() < request.getQuantity()) {
+          undoClaim(request.getEventId(), reservedTickets);
+          command.fail("Not enough tickets available");
+        } else {
+          command.succeed(completeReservation(request, command.getOrderId(), reservedTickets));
+        }
+      }
+      return null;
+    });
+  }
+
+  private List<Ticket> claimSeats(ReserveTicketRequest request, Long orderId) {
+    return seatInventoryService.isEnabled()
+        ? claimFromInventory(request, orderId)
+        : ticketRepository.claimAvailableTickets(
+            request.getEventId(),
+            request.getUserId(),
+            orderId,
+            request.getQuantity());
+  }
+
+  private List<TicketDto> completeReservation(ReserveTicketRequest request, Long orderId,
+      List<Ticket> reservedTickets) {
+    holdExpiryWheel.scheduleAfterCommit(orderId, request.getEventId());
+    availabilityBroadcaster.markChangedAfterCommit(request.getEventId());
+
+    // Send ticket reservation event
+    outboxPublisher.publish("ticket-events", request.getEventId().toString(), "TICKETS_RESERVED", orderId.toString());
+
+    return reservedTickets.stream().map(this::convertToDto).collect(Collectors.toList());
+  }
+
+  private void undoClaim(Long eventId, List<Ticket> claimedTickets) {
+    if (claimedTickets.isEmpty()) {
+      return;
+    }
+    List<Long> ticketIds = claimedTickets.stream().map(Ticket::getId).collect(Collectors.toList());
+    ticketRepository.releaseClaimedTickets(eventId, ticketIds);
+    EventSeatInventory inventory = seatInventoryService.getIfLoaded(eventId);
+    if (inventory != null) {
+      inventory.markAvailable(ticketIds);
+    }
+  }
+
+  // Picks seats from the in-memory inventory and writes the claim through to the tickets table
+  private List<Ticket> claimFromInventory(ReserveTicketRequest request, Long orderId) {
+    EventSeatInventory inventory = seatInventoryService.get(request.getEventId());
+    long[] seatIds = takeSeats(inventory, request);
+    if (seatIds == null) {
+      // Seats released by another instance only show up after a rebuild
+      inventory = seatInventoryService.rebuildIfStale(inventory);
+      seatIds = takeSeats(inventory, request);
+      if (seatIds == null) {
+        return Collections.emptyList();
+      }
+    }
+
+    List<Long> takenIds = LongStream.of(seatIds).boxed().collect(Collectors.toList());
+    List<Ticket> reservedTickets;
+    try {
+      reservedTickets = new ArrayList<>(
+          ticketRepository.claimTicketsById(request.getEventId(), takenIds, request.getUserId(), orderId));
+    } catch (RuntimeException e) {
+      // Which of the taken seats are really free is unknown now, so the next request reloads them
+      seatInventoryService.evict(request.getEventId());
+      throw e;
+    }
+
+    // Only seats this claim actually moved go back on rollback; stale ones it skipped stay taken
+    List<Long> heldIds = reservedTickets.stream().map(Ticket::getId).collect(Collectors.toCollection(ArrayList::new));
+    seatInventoryService.restoreOnRollback(inventory, heldIds);
+
+    int missing = request.getQuantity() - reservedTickets.size();
+    if (missing > 0 && !Boolean.TRUE.equals(request.getRequireAdjacent())) {
+      // The snapshot was stale: those seats stay marked taken and the rest is claimed from the table
+      List<Ticket> topUp = ticketRepository.claimAvailableTickets(
+          request.getEventId(), request.getUserId(), orderId, missing);
+      List<Long> topUpIds = topUp.stream().map(Ticket::getId).collect(Collectors.toList());
+      inventory.markTaken(topUpIds);
+      heldIds.addAll(topUpIds);
+      reservedTickets.addAll(topUp);
+    }
+
+    return reservedTickets;
+  }
+
+  // Groups get the best adjacent block; seats are split only if no block fits and the buyer allows it
+  private long[] takeSeats(EventSeatInventory inventory, ReserveTicketRequest request) {
+    long[] seatIds = inventory.takeAdjacent(request.getQuantity());
+    if (seatIds == null && !Boolean.TRUE.equals(request.getRequireAdjacent())) {
+      seatIds = inventory.take(request.getQuantity());
+    }
+    return seatIds;
+  }
+
+  private int pageSize(int limit) {
+    return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+  }
+
+  private Long cursorOrStart(Long cursor) {
+    return cursor == null ? Long.MAX_VALUE : cursor;
+  }
+
+  // Fetches one row past the page to learn whether another page exists
+  private CursorPageDto<TicketDto> toPage(List<TicketRepository.TicketView> tickets, int pageSize) {
+    boolean hasMore = tickets.size() > pageSize;
+    List<TicketDto> items = tickets.stream()
+        .limit(pageSize)
+        .map(this::convertToDto)
+        .collect(Collectors.toList());
+    Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+    return new CursorPageDto<>(items, nextCursor);
+  }
+
+  private TicketDto convertToDto(TicketRepository.TicketView ticket) {
+    return new TicketDto(
+        ticket.getId(),
+        ticket.getEventId(),
+        ticket.getUserId(),
+        ticket.getOrderId(),
+        ticket.getSeatCode(),
+        ticket.getPrice(),
+        ticket.getStatus().toString());
+  }
+
+  // Package-private so the mapping benchmark can call it directly
+  TicketDto convertToDto(Ticket ticket) {
     return new TicketDto(
         ticket.getId(),
         ticket.getEventId(),
         ticket.getUserId(),
         ticket.getOrderId(),
-        ticket.getSeatNumber(),
+        ticket.getSeatCode(),
         ticket.getPrice(),
         ticket.getStatus().toString());
   }
@@ -0,0 +1,172 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.dto.QueueStatusDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Admission queue for high-demand on-sales. Each open event keeps two counters, the sequence
+// handed to the last joiner and the sequence admitted so far, plus the times of recent admit
+// ticks. A client's place in line lives in its signed queue ticket, so position is a
+// subtraction however many wait.
+@Service
+public class WaitingRoomService {
+
+  private static final String QUEUE_TICKET = "Q";
+  private static final String ADMISSION_TOKEN = "A";
+
+  @Autowired
+  private AdmissionTokenSigner signer;
+
+  @Value("${ticket.waiting-room.enabled:true}")
+  private boolean enabled;
+
+  @Value("${ticket.waiting-room.admission-ttl-seconds:300}")
+  private long admissionTtlSeconds;
+
+  @Value("${ticket.waiting-room.tick-ms:1000}")
+  private long tickMs;
+
+  private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+
+  public void open(Long eventId, int admitRatePerSecond) {
+    if (admitRatePerSecond <= 0) {
+      throw new RuntimeException("Admit rate must be positive");
+    }
+    rooms.compute(eventId, (id, room) -> {
+      if (room == null) {
+        return new Room(System.currentTimeMillis(), admitRatePerSecond);
+      }
+      room.admitRatePerSecond = admitRatePerSecond;
+      return room;
+    });
+  }
+
+  public void close(Long eventId) {
+    rooms.remove(eventId);
+  }
+
+  public boolean isOpen(Long eventId) {
+    return enabled && rooms.containsKey(eventId);
+  }
+
+  public QueueStatusDto join(Long eventId) {
+    Room room = requireRoom(eventId);
+    long seq = room.tail.incrementAndGet();
+    String queueTicket = signer.sign(QUEUE_TICKET + ":" + eventId + ":" + room.openedAt + ":" + seq);
+    return status(eventId, room, queueTicket, seq);
+  }
+
+  public QueueStatusDto getStatus(Long eventId, String queueTicket) {
+    Room room = requireRoom(eventId);
+    String[] fields = parse(signer.verify(queueTicket), QUEUE_TICKET, eventId);
+    if (fields == null || Long.parseLong(fields[2]) != room.openedAt) {
+      throw new RuntimeException("Invalid queue ticket");
+    }
+    return status(eventId, room, queueTicket, Long.parseLong(fields[3]));
+  }
+
+  // Reserve and order calls for a queued event must carry an unexpired token for that event
+  public boolean isAdmitted(Long eventId, String admissionToken) {
+    if (!isOpen(eventId)) {
+      return true;
+    }
+    String[] fields = parse(signer.verify(admissionToken), ADMISSION_TOKEN, eventId);
+    return fields != null && Long.parseLong(fields[3]) * 1000 > System.currentTimeMillis();
+  }
+
+  // Lets the next slice of the line in; unused capacity is not banked, so an idle queue
+  // does not release a burst later
+  @Scheduled(fixedRateString = "${ticket.waiting-room.tick-ms:1000}")
+  public void admit() {
+    long now = System.currentTimeMillis();
+    for (Room room : rooms.values()) {
+      room.credit += room.admitRatePerSecond * tickMs / 1000.0;
+      long admits = (long) room.credit;
+      room.credit -= admits;
+      long tail = room.tail.get();
+      long admitted = Math.min(tail, room.admittedThrough + admits);
+      if (admitted == tail) {
+        room.credit = 0;
+      }
+      if (admitted > room.admittedThrough) {
+        // Recorded before the sequence counts as admitted, so status always finds its admit time
+        room.admitTicks.put(admitted, now);
+      }
+      room.admittedThrough = admitted;
+      room.forgetExpired(now - admissionTtlSeconds * 1000);
+    }
+  }
+
+  private QueueStatusDto status(Long eventId, Room room, String queueTicket, long seq) {
+    long ahead = seq - room.admittedThrough;
+    if (ahead > 0) {
+      return new QueueStatusDto(eventId, queueTicket, ahead, false, null);
+    }
+    // The window runs from when the tick let this sequence in, so polling again cannot extend it
+    Long admittedAt = room.admittedAt(seq);
+    long expiresAt = admittedAt == null ? 0 : admittedAt / 1000 + admissionTtlSeconds;
+    if (expiresAt * 1000 <= System.currentTimeMillis()) {
+      throw new AdmissionExpiredException("Admission has expired; join the queue again");
+    }
+    String admissionToken = signer.sign(ADMISSION_TOKEN + ":" + eventId + ":" + seq + ":" + expiresAt);
+    return new QueueStatusDto(eventId, queueTicket, 0L, true, admissionToken);
+  }
+
+  private Room requireRoom(Long eventId) {
+    Room room = enabled ? rooms.get(eventId) : null;
+    if (room == null) {
+      throw new RuntimeException("No waiting room is open for this event");
+    }
+    return room;
+  }
+
+  private String[] parse(String payload, String type, Long eventId) {
+    if (payload == null) {
+      return null;
+    }
+    String[] fields = payload.split(":");
+    if (fields.length != 4 || !fields[0].equals(type) || !fields[1].equals(eventId.toString())) {
+      return null;
+    }
+    return fields;
+  }
+
+  private static class Room {
+    private final long openedAt;
+    private final AtomicLong tail = new AtomicLong();
+    // Written only by the admit tick
+    private volatile long admittedThrough;
+    private volatile int admitRatePerSecond;
+    private double credit;
+    // Admit time of each tick, keyed by the last sequence it admitted; ticks older than the
+    // admission window are dropped, and everything up to expiredThrough has expired
+    private final ConcurrentSkipListMap<Long, Long> admitTicks = new ConcurrentSkipListMap<>();
+    private volatile long expiredThrough;
+
+    Room(long openedAt, int admitRatePerSecond) {
+      this.openedAt = openedAt;
+      this.admitRatePerSecond = admitRatePerSecond;
+    }
+
+    Long admittedAt(long seq) {
+      Map.Entry<Long, Long> tick = admitTicks.ceilingEntry(seq);
+      // Checked after the lookup, so a tick dropped meanwhile cannot lend seq a later time
+      return tick == null || seq <= expiredThrough ? null : tick.getValue();
+    }
+
+    void forgetExpired(long admittedBefore) {
+      Map.Entry<Long, Long> oldest;
+      while ((oldest = admitTicks.firstEntry()) != null && oldest.getValue() <= admittedBefore) {
+        expiredThrough = oldest.getKey();
+        admitTicks.remove(oldest.getKey());
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+-- Ticket service schema as it stood when Hibernate's ddl-auto=update still managed it.
+-- Every statement tolerates a database that update already built, so existing
+-- deployments are brought in line by the same script that creates a fresh one.
+
+CREATE TABLE IF NOT EXISTS ticket_provisioning (
+  event_id bigint PRIMARY KEY,
+  total_tickets integer NOT NULL,
+  provisioned_tickets integer NOT NULL,
+  ticket_price double precision NOT NULL,
+  status varchar(255),
+  created_at timestamp,
+  updated_at timestamp
+);
+
+CREATE TABLE IF NOT EXISTS ticket_outbox (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  topic varchar(255) NOT NULL,
+  message_key varchar(255) NOT NULL,
+  payload text NOT NULL,
+  created_at timestamp NOT NULL
+);
+
+-- Moves tickets created before seat codes onto the packed seat_code column. Does nothing
+-- on a fresh database or once migrated.
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.columns
+             WHERE table_name = 'tickets' AND column_name = 'seat_number') THEN
+    ALTER TABLE tickets ADD COLUMN IF NOT EXISTS seat_code integer;
+
+    -- Seats provisioned with a layout keep their section, row and seat
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'tickets' AND column_name = 'seat_ordinal') THEN
+      UPDATE tickets SET seat_code = (section_no << 20) | (row_no << 10) | seat_ordinal
+      WHERE seat_code IS NULL AND seat_ordinal IS NOT NULL;
+    END IF;
+
+    -- Seats without a layout get one seat per row from the top section down, so none of
+    -- them count as adjacent
+    UPDATE tickets t SET seat_code = (((2047 - n.pos / 1023) << 20) | ((n.pos % 1023 + 1) << 10) | 1)::integer
+    FROM (SELECT id, row_number() OVER (PARTITION BY event_id ORDER BY id) - 1 AS pos
+          FROM tickets WHERE seat_code IS NULL) n
+    WHERE t.id = n.id;
+
+    ALTER TABLE tickets ALTER COLUMN seat_code SET NOT NULL;
+    ALTER TABLE tickets DROP COLUMN seat_number, DROP COLUMN IF EXISTS section_no,
+      DROP COLUMN IF EXISTS row_no, DROP COLUMN IF EXISTS seat_ordinal;
+  END IF;
+END $$;
+
+-- Tickets are LIST-partitioned by event, so an on-sale only touches its own event's partition
+-- and finished events can be detached. Partitions are created when an event is provisioned;
+-- anything else lands in tickets_default. An existing plain table is converted in place.
+DO $$
+DECLARE
+  partition_event_id bigint;
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_class
+             WHERE relname = 'tickets' AND relkind = 'r' AND relnamespace = 'public'::regnamespace) THEN
+    ALTER TABLE tickets RENAME TO tickets_unpartitioned;
+    ALTER INDEX IF EXISTS tickets_pkey RENAME TO tickets_unpartitioned_pkey;
+    ALTER TABLE tickets_unpartitioned ALTER COLUMN id DROP IDENTITY IF EXISTS;
+    DROP INDEX IF EXISTS idx_tickets_status_updated_at;
+    DROP INDEX IF EXISTS idx_tickets_event_seat_code;
+  END IF;
+
+  CREATE SEQUENCE IF NOT EXISTS tickets_id_seq;
+  CREATE TABLE IF NOT EXISTS tickets (
+    id bigint NOT NULL DEFAULT nextval('tickets_id_seq'),
+    event_id bigint NOT NULL,
+    user_id bigint,
+    order_id bigint,
+    seat_code integer NOT NULL,
+    price double precision NOT NULL,
+    status varchar(255),
+    created_at timestamp,
+    updated_at timestamp,
+    PRIMARY KEY (id, event_id)
+  ) PARTITION BY LIST (event_id);
+  ALTER SEQUENCE tickets_id_seq OWNED BY tickets.id;
+  CREATE TABLE IF NOT EXISTS tickets_default PARTITION OF tickets DEFAULT;
+
+  IF to_regclass('tickets_unpartitioned') IS NOT NULL THEN
+    FOR partition_event_id IN SELECT DISTINCT event_id FROM tickets_unpartitioned LOOP
+      EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF tickets FOR VALUES IN (%s)',
+          'tickets_e' || partition_event_id, partition_event_id);
+    END LOOP;
+    INSERT INTO tickets (id, event_id, user_id, order_id, seat_code, price, status, created_at, updated_at)
+    SELECT id, event_id, user_id, order_id, seat_code, price, status, created_at, updated_at
+    FROM tickets_unpartitioned;
+    PERFORM setval('tickets_id_seq', COALESCE((SELECT max(id) FROM tickets), 0) + 1, false);
+    DROP TABLE tickets_unpartitioned;
+  END IF;
+END $$;
+
+CREATE INDEX IF NOT EXISTS idx_tickets_status_updated_at ON tickets (status, updated_at);
+CREATE INDEX IF NOT EXISTS idx_tickets_event_seat_code ON tickets (event_id, seat_code);
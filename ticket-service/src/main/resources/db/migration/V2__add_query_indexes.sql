@@ -0,0 +1,14 @@
+-- Indexes for the lookups the service runs on every request. Created on the partitioned
+-- parent, so each event partition gets its own copy.
+
+-- Availability counts and status lookups within one event
+CREATE INDEX IF NOT EXISTS idx_tickets_event_status ON tickets (event_id, status);
+
+-- Seat claims pick the lowest available ids of an event; only AVAILABLE rows are indexed,
+-- so the index shrinks as an event sells out
+CREATE INDEX IF NOT EXISTS idx_tickets_event_available ON tickets (event_id, id)
+  WHERE status = 'AVAILABLE';
+
+-- Order and user lookups, including their keyset pages ordered by id
+CREATE INDEX IF NOT EXISTS idx_tickets_order_id ON tickets (order_id, id);
+CREATE INDEX IF NOT EXISTS idx_tickets_user_id ON tickets (user_id, id);
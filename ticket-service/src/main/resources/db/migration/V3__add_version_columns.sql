@@ -0,0 +1,3 @@
+-- Optimistic lock version; existing rows start at 0. A constant default adds the column
+-- without rewriting the table.
+ALTER TABLE tickets ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
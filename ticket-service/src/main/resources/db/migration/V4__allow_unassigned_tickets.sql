@@ -0,0 +1,4 @@
+-- AVAILABLE seats are provisioned before anyone holds them, so they have no user or order yet.
+-- Tables built by ddl-auto before provisioning existed still carry NOT NULL on both; dropping
+-- it again is a no-op.
+ALTER TABLE tickets ALTER COLUMN user_id DROP NOT NULL, ALTER COLUMN order_id DROP NOT NULL;
@@ -0,0 +1,21 @@
+-- Events whose seats landed in tickets_default get their own partition. Attaching a partition
+-- has to check tickets_default for rows of that event, so an emptied default keeps the check
+-- trivial, and every event can then be archived by partition. Each partition is filled while
+-- standalone and attached behind a CHECK matching its bound, as TicketPartitionService does.
+DO $$
+DECLARE
+  partition_event_id bigint;
+  partition_name text;
+BEGIN
+  FOR partition_event_id IN SELECT DISTINCT event_id FROM tickets_default LOOP
+    partition_name := 'tickets_e' || partition_event_id;
+    EXECUTE format('CREATE TABLE %I (LIKE tickets INCLUDING DEFAULTS)', partition_name);
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (event_id IS NOT NULL AND event_id = %s)',
+        partition_name, partition_name || '_bound', partition_event_id);
+    EXECUTE format('WITH moved AS (DELETE FROM tickets_default WHERE event_id = %s RETURNING *) '
+        || 'INSERT INTO %I SELECT * FROM moved', partition_event_id, partition_name);
+    EXECUTE format('ALTER TABLE tickets ATTACH PARTITION %I FOR VALUES IN (%s)',
+        partition_name, partition_event_id);
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition_name, partition_name || '_bound');
+  END LOOP;
+END $$;
@@ -0,0 +1,5 @@
+-- Outbox messages are keyed by the aggregate they describe, so the event type gets its own
+-- column and travels as a Kafka header. Rows still waiting were written with the type as key.
+ALTER TABLE ticket_outbox ADD COLUMN IF NOT EXISTS event_type varchar(255);
+UPDATE ticket_outbox SET event_type = message_key WHERE event_type IS NULL;
+ALTER TABLE ticket_outbox ALTER COLUMN event_type SET NOT NULL;
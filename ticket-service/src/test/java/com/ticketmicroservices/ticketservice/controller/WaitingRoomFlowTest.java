@@ -0,0 +1,226 @@
+package com.ticketmicroservices.ticketservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.ticketservice.config.InternalApiConfig;
+import com.ticketmicroservices.ticketservice.dto.QueueStatusDto;
+import com.ticketmicroservices.ticketservice.dto.TicketDto;
+import com.ticketmicroservices.ticketservice.service.AdmissionTokenSigner;
+import com.ticketmicroservices.ticketservice.service.AvailabilityBroadcaster;
+import com.ticketmicroservices.ticketservice.service.BulkTicketService;
+import com.ticketmicroservices.ticketservice.service.IdempotencyStore;
+import com.ticketmicroservices.ticketservice.service.ReservationDispatcher;
+import com.ticketmicroservices.ticketservice.service.SeatProvisioningService;
+import com.ticketmicroservices.ticketservice.service.ShardRouter;
+import com.ticketmicroservices.ticketservice.service.TicketPartitionService;
+import com.ticketmicroservices.ticketservice.service.TicketService;
+import com.ticketmicroservices.ticketservice.service.WaitingRoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A local on-sale end to end through the web layer: the operator opens a room, buyers join,
+// the admit tick lets the head of the line in, and only an admitted buyer's token can reserve.
+// Reservation itself is stubbed; the tick is driven by hand so admission is deterministic.
+@WebMvcTest(controllers = {TicketController.class, WaitingRoomController.class, WaitingRoomAdminController.class})
+@Import({WaitingRoomService.class, AdmissionTokenSigner.class})
+@TestPropertySource(properties = {
+    "ticket.waiting-room.secret=test-waiting-room-secret",
+    "ticket.waiting-room.tick-ms=3600000",
+    "ticket.internal.token=test-internal-token"
+})
+class WaitingRoomFlowTest {
+
+  private static final long EVENT_ID = 7L;
+  private static final String INTERNAL_TOKEN = "test-internal-token";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private WaitingRoomService waitingRoomService;
+
+  @MockBean
+  private TicketService ticketService;
+
+  @MockBean
+  private ReservationDispatcher reservationDispatcher;
+
+  @MockBean
+  private BulkTicketService bulkTicketService;
+
+  @MockBean
+  private SeatProvisioningService seatProvisioningService;
+
+  @MockBean
+  private TicketPartitionService ticketPartitionService;
+
+  @MockBean
+  private IdempotencyStore idempotencyStore;
+
+  @MockBean
+  private ShardRouter shardRouter;
+
+  @MockBean
+  private AvailabilityBroadcaster availabilityBroadcaster;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    // Each manual tick admits admitRate buyers, as a one-second tick would
+    ReflectionTestUtils.setField(waitingRoomService, "tickMs", 1000L);
+    ReflectionTestUtils.setField(waitingRoomService, "admissionTtlSeconds", 300L);
+    waitingRoomService.close(EVENT_ID);
+    when(shardRouter.isOwner(any())).thenReturn(true);
+    when(idempotencyStore.execute(any(), any()))
+        .thenAnswer(invocation -> ((Supplier<CompletableFuture<?>>) invocation.getArgument(1)).get());
+    TicketDto ticket = new TicketDto();
+    ticket.setEventId(EVENT_ID);
+    when(reservationDispatcher.submit(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(ticket)));
+  }
+
+  @Test
+  void joinTickAdmitAndReserveWithToken() throws Exception {
+    mockMvc.perform(internal(post("/internal/waiting-room/{eventId}/open", EVENT_ID).param("admitRate", "1")))
+        .andExpect(status().isOk());
+
+    // With the room open a reservation needs a token
+    reserve(1L, null).andExpect(status().isForbidden());
+
+    QueueStatusDto first = join();
+    QueueStatusDto second = join();
+    assertEquals(1L, first.getPosition());
+    assertEquals(2L, second.getPosition());
+    assertFalse(first.getAdmitted());
+    assertNull(first.getAdmissionToken());
+
+    waitingRoomService.admit();
+
+    QueueStatusDto admitted = queueStatus(first.getQueueTicket());
+    QueueStatusDto waiting = queueStatus(second.getQueueTicket());
+    assertTrue(admitted.getAdmitted());
+    assertNotNull(admitted.getAdmissionToken());
+    assertFalse(waiting.getAdmitted());
+    assertEquals(1L, waiting.getPosition());
+
+    reserve(1L, admitted.getAdmissionToken()).andExpect(status().isOk());
+    verify(reservationDispatcher, times(1)).submit(any(), eq(1L));
+
+    // The queue ticket is not an admission token, and a token is bound to its event
+    reserve(2L, second.getQueueTicket()).andExpect(status().isForbidden());
+    verify(reservationDispatcher, never()).submit(any(), eq(2L));
+
+    waitingRoomService.admit();
+    assertTrue(queueStatus(second.getQueueTicket()).getAdmitted());
+  }
+
+  @Test
+  void admissionWindowRunsFromTheAdmitNotFromTheLatestPoll() throws Exception {
+    mockMvc.perform(internal(post("/internal/waiting-room/{eventId}/open", EVENT_ID).param("admitRate", "1")))
+        .andExpect(status().isOk());
+    QueueStatusDto joined = join();
+    waitingRoomService.admit();
+
+    // Polling again hands back the same token rather than one with a fresh expiry
+    String token = queueStatus(joined.getQueueTicket()).getAdmissionToken();
+    assertEquals(token, queueStatus(joined.getQueueTicket()).getAdmissionToken());
+
+    // Once the window has passed the queue ticket no longer yields a token
+    ReflectionTestUtils.setField(waitingRoomService, "admissionTtlSeconds", 0L);
+    mockMvc.perform(get("/api/waiting-room/{eventId}/status", EVENT_ID)
+            .header("X-Queue-Ticket", joined.getQueueTicket()))
+        .andExpect(status().isGone());
+  }
+
+  @Test
+  void closedRoomLetsReservationsThroughWithoutToken() throws Exception {
+    mockMvc.perform(internal(post("/internal/waiting-room/{eventId}/open", EVENT_ID).param("admitRate", "1")))
+        .andExpect(status().isOk());
+    mockMvc.perform(internal(delete("/internal/waiting-room/{eventId}", EVENT_ID))).andExpect(status().isOk());
+
+    reserve(3L, null).andExpect(status().isOk());
+  }
+
+  @Test
+  void roomAdministrationNeedsTheInternalToken() throws Exception {
+    mockMvc.perform(post("/internal/waiting-room/{eventId}/open", EVENT_ID).param("admitRate", "1000"))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(post("/internal/waiting-room/{eventId}/open", EVENT_ID).param("admitRate", "1000")
+            .header(InternalApiConfig.TOKEN_HEADER, "guess"))
+        .andExpect(status().isForbidden());
+    assertFalse(waitingRoomService.isOpen(EVENT_ID));
+
+    mockMvc.perform(internal(post("/internal/waiting-room/{eventId}/open", EVENT_ID).param("admitRate", "1")))
+        .andExpect(status().isOk());
+    mockMvc.perform(delete("/internal/waiting-room/{eventId}", EVENT_ID)).andExpect(status().isForbidden());
+    assertTrue(waitingRoomService.isOpen(EVENT_ID));
+  }
+
+  private QueueStatusDto join() throws Exception {
+    MvcResult result = mockMvc.perform(post("/api/waiting-room/{eventId}/join", EVENT_ID))
+        .andExpect(status().isOk())
+        .andReturn();
+    return objectMapper.readValue(result.getResponse().getContentAsString(), QueueStatusDto.class);
+  }
+
+  private QueueStatusDto queueStatus(String queueTicket) throws Exception {
+    MvcResult result = mockMvc.perform(get("/api/waiting-room/{eventId}/status", EVENT_ID)
+            .header("X-Queue-Ticket", queueTicket))
+        .andExpect(status().isOk())
+        .andReturn();
+    return objectMapper.readValue(result.getResponse().getContentAsString(), QueueStatusDto.class);
+  }
+
+  // The reserve endpoint answers asynchronously, refusals included
+  private ResultActions reserve(Long orderId, String admissionToken) throws Exception {
+    MockHttpServletRequestBuilder builder = post("/api/tickets/reserve")
+        .param("orderId", orderId.toString())
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(Map.of("eventId", EVENT_ID, "userId", 1, "quantity", 2)));
+    if (admissionToken != null) {
+      builder.header("X-Admission-Token", admissionToken);
+    }
+    MvcResult pending = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    return mockMvc.perform(asyncDispatch(pending));
+  }
+
+  private static MockHttpServletRequestBuilder internal(MockHttpServletRequestBuilder request) {
+    return request.header(InternalApiConfig.TOKEN_HEADER, INTERNAL_TOKEN);
+  }
+}
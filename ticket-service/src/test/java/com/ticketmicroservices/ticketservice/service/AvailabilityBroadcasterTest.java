@@ -0,0 +1,122 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ticketmicroservices.ticketservice.entity.Ticket;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// One shard, so the stalled client and the healthy one share a sender: once the stalled write
+// passes the send timeout the healthy client must be served again and the stalled one dropped
+class AvailabilityBroadcasterTest {
+
+  private static final long EVENT_ID = 9L;
+  private static final long SEND_TIMEOUT_MS = 100;
+
+  private AvailabilityBroadcaster broadcaster;
+  private TicketRepository ticketRepository;
+  private SimpleMeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    SeatInventoryService seatInventoryService = mock(SeatInventoryService.class);
+    ticketRepository = mock(TicketRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+
+    broadcaster = new AvailabilityBroadcaster();
+    ReflectionTestUtils.setField(broadcaster, "seatInventoryService", seatInventoryService);
+    ReflectionTestUtils.setField(broadcaster, "ticketRepository", ticketRepository);
+    ReflectionTestUtils.setField(broadcaster, "objectMapper", new ObjectMapper());
+    ReflectionTestUtils.setField(broadcaster, "meterRegistry", meterRegistry);
+    ReflectionTestUtils.setField(broadcaster, "refreshMs", 60000L);
+    ReflectionTestUtils.setField(broadcaster, "senders", 2);
+    ReflectionTestUtils.setField(broadcaster, "shardCount", 1);
+    ReflectionTestUtils.setField(broadcaster, "sendTimeoutMs", SEND_TIMEOUT_MS);
+    broadcaster.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    broadcaster.shutdown();
+  }
+
+  @Test
+  void stalledSubscriberIsDroppedAndItsShardKeepsGoing() throws Exception {
+    CountDownLatch unblock = new CountDownLatch(1);
+    RecordingEmitter stalled = new RecordingEmitter(unblock);
+    RecordingEmitter healthy = new RecordingEmitter(null);
+    broadcaster.subscribe(EVENT_ID, stalled);
+    broadcaster.subscribe(EVENT_ID, healthy);
+
+    available(10);
+    broadcaster.tick();
+    assertTrue(stalled.writing.await(5, TimeUnit.SECONDS));
+
+    // The next tick finds the write past its timeout and hands the shard to a new sender
+    Thread.sleep(SEND_TIMEOUT_MS * 2);
+    available(9);
+    broadcaster.markChanged(EVENT_ID);
+    broadcaster.tick();
+    assertEquals(1.0, meterRegistry.get("ticket.availability.stream.subscribers").gauge().value());
+
+    String frame;
+    do {
+      frame = healthy.frames.poll(5, TimeUnit.SECONDS);
+    } while (frame != null && !frame.contains("\"availableTickets\":9"));
+    assertTrue(frame != null, "the healthy subscriber never saw the new count");
+
+    // When the stalled write finally returns, that client is closed rather than kept on
+    unblock.countDown();
+    assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+  }
+
+  private void available(long count) {
+    when(ticketRepository.countByEventIdAndStatus(eq(EVENT_ID), eq(Ticket.TicketStatus.AVAILABLE))).thenReturn(count);
+  }
+
+  // Stands in for a client connection; with a latch, its first write blocks until released
+  private static class RecordingEmitter extends SseEmitter {
+    private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private final CountDownLatch unblock;
+
+    private RecordingEmitter(CountDownLatch unblock) {
+      this.unblock = unblock;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      writing.countDown();
+      if (unblock != null) {
+        try {
+          unblock.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      builder.build().forEach(part -> frames.add(String.valueOf(part.getData())));
+    }
+
+    @Override
+    public void complete() {
+      completed.countDown();
+    }
+  }
+}
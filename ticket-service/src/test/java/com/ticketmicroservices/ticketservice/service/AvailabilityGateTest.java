@@ -0,0 +1,170 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.entity.Ticket;
+import com.ticketmicroservices.ticketservice.repository.TicketRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Runs the gate's Lua scripts against a real redis-server started in-process
+class AvailabilityGateTest {
+
+  private static final Long EVENT_ID = 42L;
+  private static final String KEY = "ticket:available:" + EVENT_ID;
+
+  private static RedisServer redisServer;
+  private static int redisPort;
+
+  private LettuceConnectionFactory connectionFactory;
+  private StringRedisTemplate redisTemplate;
+  private TicketRepository ticketRepository;
+  private AvailabilityGate gate;
+
+  @BeforeAll
+  static void startRedis() throws IOException {
+    redisPort = freePort();
+    redisServer = new RedisServer(redisPort);
+    redisServer.start();
+  }
+
+  @AfterAll
+  static void stopRedis() throws IOException {
+    redisServer.stop();
+  }
+
+  @BeforeEach
+  void setUp() {
+    connectionFactory = connectionFactory(redisPort);
+    redisTemplate = new StringRedisTemplate(connectionFactory);
+    redisTemplate.delete(KEY);
+    ticketRepository = mock(TicketRepository.class);
+    gate = gate(redisTemplate, ticketRepository);
+  }
+
+  @AfterEach
+  void tearDown() {
+    connectionFactory.destroy();
+  }
+
+  @Test
+  void seedsCounterFromAvailableTicketsOnFirstUse() {
+    when(ticketRepository.countByEventIdAndStatus(EVENT_ID, Ticket.TicketStatus.AVAILABLE)).thenReturn(10L);
+
+    assertTrue(gate.tryAcquire(EVENT_ID, 3));
+
+    assertEquals("7", redisTemplate.opsForValue().get(KEY));
+    assertTrue(redisTemplate.getExpire(KEY) > 0);
+    verify(ticketRepository, times(1)).countByEventIdAndStatus(EVENT_ID, Ticket.TicketStatus.AVAILABLE);
+  }
+
+  @Test
+  void seedingDoesNotOverwriteACounterAnotherInstanceSeeded() {
+    redisTemplate.opsForValue().set(KEY, "5");
+    when(ticketRepository.countByEventIdAndStatus(eq(EVENT_ID), eq(Ticket.TicketStatus.AVAILABLE))).thenReturn(100L);
+
+    assertTrue(gate.tryAcquire(EVENT_ID, 2));
+
+    assertEquals("3", redisTemplate.opsForValue().get(KEY));
+    verify(ticketRepository, times(0)).countByEventIdAndStatus(anyLong(), eq(Ticket.TicketStatus.AVAILABLE));
+  }
+
+  @Test
+  void rejectsWithoutDecrementingWhenFewerSeatsRemain() {
+    redisTemplate.opsForValue().set(KEY, "2");
+
+    assertFalse(gate.tryAcquire(EVENT_ID, 3));
+    assertEquals("2", redisTemplate.opsForValue().get(KEY));
+
+    assertTrue(gate.tryAcquire(EVENT_ID, 2));
+    assertEquals("0", redisTemplate.opsForValue().get(KEY));
+    assertFalse(gate.tryAcquire(EVENT_ID, 1));
+  }
+
+  @Test
+  void releaseCreditsSeatsBack() {
+    redisTemplate.opsForValue().set(KEY, "1");
+
+    gate.release(EVENT_ID, 4);
+
+    assertEquals("5", redisTemplate.opsForValue().get(KEY));
+  }
+
+  @Test
+  void releaseDoesNotCreateAMissingCounter() {
+    // A counter created by release would start from the wrong total instead of being seeded
+    gate.release(EVENT_ID, 4);
+
+    assertNull(redisTemplate.opsForValue().get(KEY));
+  }
+
+  @Test
+  void reconcileOverwritesCounterWithTableCount() {
+    redisTemplate.opsForValue().set(KEY, "3");
+    when(ticketRepository.countByEventIdAndStatus(EVENT_ID, Ticket.TicketStatus.AVAILABLE)).thenReturn(8L);
+
+    gate.reconcile(EVENT_ID);
+
+    assertEquals("8", redisTemplate.opsForValue().get(KEY));
+  }
+
+  @Test
+  void failsOpenWhenRedisIsDown() throws IOException {
+    LettuceConnectionFactory downFactory = connectionFactory(freePort());
+    try {
+      AvailabilityGate downGate = gate(new StringRedisTemplate(downFactory), ticketRepository);
+
+      assertTrue(downGate.tryAcquire(EVENT_ID, 1));
+      downGate.release(EVENT_ID, 1);
+    } finally {
+      downFactory.destroy();
+    }
+  }
+
+  private static AvailabilityGate gate(StringRedisTemplate redisTemplate, TicketRepository ticketRepository) {
+    AvailabilityGate gate = new AvailabilityGate();
+    ReflectionTestUtils.setField(gate, "redisTemplate", redisTemplate);
+    ReflectionTestUtils.setField(gate, "ticketRepository", ticketRepository);
+    ReflectionTestUtils.setField(gate, "enabled", true);
+    ReflectionTestUtils.setField(gate, "counterTtlHours", 24L);
+    return gate;
+  }
+
+  private static LettuceConnectionFactory connectionFactory(int port) {
+    LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+        .commandTimeout(Duration.ofMillis(500))
+        .build();
+    LettuceConnectionFactory factory = new LettuceConnectionFactory(
+        new RedisStandaloneConfiguration("localhost", port), clientConfig);
+    factory.afterPropertiesSet();
+    return factory;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
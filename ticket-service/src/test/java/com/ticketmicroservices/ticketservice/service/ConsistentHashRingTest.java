@@ -0,0 +1,153 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Several instances in one JVM: every ring or router built from the same membership must
+// agree on each event's owner, and a membership change may only move about 1/N of events
+class ConsistentHashRingTest {
+
+  private static final int VIRTUAL_NODES = 160;
+  private static final int EVENTS = 20000;
+
+  private static final List<String> MEMBERS = Arrays.asList(
+      "http://ticket-1:8080", "http://ticket-2:8080", "http://ticket-3:8080", "http://ticket-4:8080");
+
+  @Test
+  void ringsBuiltFromTheSameMembersAgreeInAnyOrder() {
+    List<String> shuffled = new ArrayList<>(MEMBERS);
+    Collections.reverse(shuffled);
+    ConsistentHashRing first = new ConsistentHashRing(MEMBERS, VIRTUAL_NODES);
+    ConsistentHashRing second = new ConsistentHashRing(shuffled, VIRTUAL_NODES);
+
+    for (long eventId = 1; eventId <= EVENTS; eventId++) {
+      assertEquals(first.ownerOf(eventId), second.ownerOf(eventId));
+    }
+  }
+
+  @Test
+  void eventsSpreadEvenlyAcrossMembers() {
+    ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, VIRTUAL_NODES);
+    Map<String, Integer> owned = new HashMap<>();
+    for (long eventId = 1; eventId <= EVENTS; eventId++) {
+      owned.merge(ring.ownerOf(eventId), 1, Integer::sum);
+    }
+
+    double fairShare = (double) EVENTS / MEMBERS.size();
+    for (String member : MEMBERS) {
+      double share = owned.getOrDefault(member, 0) / fairShare;
+      assertTrue(share > 0.75 && share < 1.25, member + " owns " + share + " of its fair share");
+    }
+  }
+
+  @Test
+  void addingAMemberMovesAboutOneNthOfEventsAllToTheNewMember() {
+    List<String> grown = new ArrayList<>(MEMBERS);
+    grown.add("http://ticket-5:8080");
+    ConsistentHashRing before = new ConsistentHashRing(MEMBERS, VIRTUAL_NODES);
+    ConsistentHashRing after = new ConsistentHashRing(grown, VIRTUAL_NODES);
+
+    int moved = 0;
+    for (long eventId = 1; eventId <= EVENTS; eventId++) {
+      String owner = after.ownerOf(eventId);
+      if (!owner.equals(before.ownerOf(eventId))) {
+        moved++;
+        assertEquals("http://ticket-5:8080", owner);
+      }
+    }
+    assertMovedAboutOneNth(moved, grown.size());
+  }
+
+  @Test
+  void removingAMemberMovesOnlyItsEvents() {
+    List<String> shrunk = new ArrayList<>(MEMBERS);
+    String removed = shrunk.remove(1);
+    ConsistentHashRing before = new ConsistentHashRing(MEMBERS, VIRTUAL_NODES);
+    ConsistentHashRing after = new ConsistentHashRing(shrunk, VIRTUAL_NODES);
+
+    int moved = 0;
+    for (long eventId = 1; eventId <= EVENTS; eventId++) {
+      String previous = before.ownerOf(eventId);
+      if (!previous.equals(after.ownerOf(eventId))) {
+        moved++;
+        assertEquals(removed, previous);
+      }
+    }
+    assertMovedAboutOneNth(moved, MEMBERS.size());
+  }
+
+  @Test
+  void routersOnEveryInstanceAgreeOnASingleOwner() {
+    List<ShardRouter> routers = new ArrayList<>();
+    for (String member : MEMBERS) {
+      routers.add(router(member));
+    }
+
+    for (long eventId = 1; eventId <= EVENTS; eventId += 7) {
+      int owners = 0;
+      for (ShardRouter router : routers) {
+        assertEquals(routers.get(0).ownerOf(eventId), router.ownerOf(eventId));
+        if (router.isOwner(eventId)) {
+          owners++;
+        }
+      }
+      assertEquals(1, owners, "event " + eventId);
+    }
+  }
+
+  @Test
+  void membersMustBeBaseUrls() {
+    ShardRouter router = router(MEMBERS.get(0));
+    assertThrows(RuntimeException.class, () -> router.updateMembers(Arrays.asList("ticket-2:8080")));
+    assertThrows(RuntimeException.class, () -> router.updateMembers(Arrays.asList("http://evil/collect?x=")));
+    assertThrows(RuntimeException.class, () -> router.updateMembers(Arrays.asList("file:///etc/passwd")));
+    assertEquals(MEMBERS.size(), router.getMembers().size());
+  }
+
+  @Test
+  void forwardedHeaderCountsOnlyWithTheInternalToken() {
+    ShardRouter router = router(MEMBERS.get(0));
+    assertTrue(router.isForwarded(MEMBERS.get(1), "secret"));
+    assertFalse(router.isForwarded(MEMBERS.get(1), null));
+    assertFalse(router.isForwarded(MEMBERS.get(1), "guess"));
+    assertFalse(router.isForwarded(null, "secret"));
+
+    ReflectionTestUtils.setField(router, "internalToken", "");
+    assertFalse(router.isForwarded(MEMBERS.get(1), ""));
+  }
+
+  private static void assertMovedAboutOneNth(int moved, int members) {
+    double share = (double) moved / EVENTS;
+    double expected = 1.0 / members;
+    assertTrue(share > expected * 0.7 && share < expected * 1.3,
+        "moved " + share + " of events, expected about " + expected);
+  }
+
+  private static ShardRouter router(String self) {
+    ShardRouter router = new ShardRouter();
+    ReflectionTestUtils.setField(router, "seatInventoryService", mock(SeatInventoryService.class));
+    ReflectionTestUtils.setField(router, "restTemplateBuilder", new RestTemplateBuilder());
+    ReflectionTestUtils.setField(router, "enabled", true);
+    ReflectionTestUtils.setField(router, "self", self);
+    ReflectionTestUtils.setField(router, "configuredMembers", MEMBERS);
+    ReflectionTestUtils.setField(router, "virtualNodes", VIRTUAL_NODES);
+    ReflectionTestUtils.setField(router, "forwardTimeoutMs", 1000L);
+    ReflectionTestUtils.setField(router, "internalToken", "secret");
+    router.init();
+    return router;
+  }
+}
@@ -0,0 +1,125 @@
+package com.ticketmicroservices.ticketservice.service;
+
+import com.ticketmicroservices.ticketservice.dto.ReserveTicketRequest;
+import com.ticketmicroservices.ticketservice.dto.TicketDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// A single lane with a stubbed TicketService: one request whose reservation throws must fail
+// alone, not take the rest of its micro-batch down with it
+class ReservationDispatcherTest {
+
+  private static final long EVENT_ID = 5L;
+  private static final long POISON_ORDER = 13L;
+
+  private ReservationDispatcher dispatcher;
+  private TicketService ticketService;
+  private AvailabilityGate availabilityGate;
+  private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+  private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    ticketService = mock(TicketService.class);
+    availabilityGate = mock(AvailabilityGate.class);
+    when(availabilityGate.tryAcquire(anyLong(), anyInt())).thenReturn(true);
+
+    // Holds the lane on its first batch so the next requests queue up into one batch
+    doAnswer(invocation -> {
+      List<ReservationCommand> commands = invocation.getArgument(0);
+      if (commands.get(0).getOrderId() == 1L) {
+        firstBatchStarted.countDown();
+        releaseFirstBatch.await(5, TimeUnit.SECONDS);
+      }
+      for (ReservationCommand command : commands) {
+        if (command.getOrderId() == POISON_ORDER) {
+          throw new RuntimeException("ERROR: database went away");
+        }
+        TicketDto ticket = new TicketDto();
+        ticket.setOrderId(command.getOrderId());
+        command.succeed(Collections.singletonList(ticket));
+      }
+      return null;
+    }).when(ticketService).reserveBatch(any());
+
+    dispatcher = new ReservationDispatcher();
+    ReflectionTestUtils.setField(dispatcher, "ticketService", ticketService);
+    ReflectionTestUtils.setField(dispatcher, "availabilityGate", availabilityGate);
+    ReflectionTestUtils.setField(dispatcher, "meterRegistry", new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(dispatcher, "enabled", true);
+    ReflectionTestUtils.setField(dispatcher, "laneCount", 1);
+    ReflectionTestUtils.setField(dispatcher, "queueCapacity", 100);
+    ReflectionTestUtils.setField(dispatcher, "maxBatchSize", 64);
+    ReflectionTestUtils.setField(dispatcher, "shutdownTimeoutMs", 1000L);
+    dispatcher.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    releaseFirstBatch.countDown();
+    dispatcher.stop();
+  }
+
+  @Test
+  void invalidRequestsAreRejectedBeforeTheGate() {
+    for (ReserveTicketRequest request : List.of(request(null, 1), request(EVENT_ID, 0), request(EVENT_ID, -2))) {
+      ExecutionException e = assertThrows(ExecutionException.class, () -> dispatcher.submit(request, 1L).get());
+      assertInstanceOf(InvalidReservationException.class, e.getCause());
+    }
+    verify(availabilityGate, never()).tryAcquire(anyLong(), anyInt());
+  }
+
+  @Test
+  void onlyTheRequestThatThrowsFailsItsBatch() throws Exception {
+    CompletableFuture<List<TicketDto>> first = dispatcher.submit(request(EVENT_ID, 1), 1L);
+    assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+
+    CompletableFuture<List<TicketDto>> before = dispatcher.submit(request(EVENT_ID, 2), 2L);
+    CompletableFuture<List<TicketDto>> poison = dispatcher.submit(request(EVENT_ID, 3), POISON_ORDER);
+    CompletableFuture<List<TicketDto>> after = dispatcher.submit(request(EVENT_ID, 4), 4L);
+    releaseFirstBatch.countDown();
+
+    assertEquals(1L, first.get(5, TimeUnit.SECONDS).get(0).getOrderId());
+    assertEquals(2L, before.get(5, TimeUnit.SECONDS).get(0).getOrderId());
+    assertEquals(4L, after.get(5, TimeUnit.SECONDS).get(0).getOrderId());
+    ExecutionException e = assertThrows(ExecutionException.class, () -> poison.get(5, TimeUnit.SECONDS));
+    assertEquals("ERROR: database went away", e.getCause().getMessage());
+
+    // Only the failed request hands its seats back to the gate
+    verify(availabilityGate).release(EVENT_ID, 3);
+    verify(availabilityGate, never()).release(EVENT_ID, 2);
+    verify(availabilityGate, never()).release(EVENT_ID, 4);
+  }
+
+  private static ReserveTicketRequest request(Long eventId, int quantity) {
+    ReserveTicketRequest request = new ReserveTicketRequest();
+    request.setEventId(eventId);
+    request.setUserId(1L);
+    request.setQuantity(quantity);
+    return request;
+  }
+}
@@ -0,0 +1,24 @@
+package com.ticketmicroservices.userservice.repository;
+
+import com.ticketmicroservices.userservice.entity.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+    List<OutboxMessage> findByOrderByIdAsc(Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    // Held until the surrounding transaction ends, so only one relay drains the table at a time
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('user_outbox'))", nativeQuery = true)
+    boolean tryLockRelay();
+}
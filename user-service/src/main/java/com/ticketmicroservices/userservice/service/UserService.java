@@ -8,9 +8,9 @@ import com.ticketmicroservices.userservice.entity.User;
 import com.ticketmicroservices.userservice.repository.UserRepository;
 import com.ticketmicroservices.userservice.security.JwtTokenProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserService {
@@ -25,8 +25,9 @@ public class UserService {
     private JwtTokenProvider tokenProvider;
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxPublisher outboxPublisher;
 
+    @Transactional
     public AuthResponse register(RegisterRequest registerRequest) {
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
             throw new RuntimeException("Username already exists");
@@ -49,7 +50,7 @@ public class UserService {
         String token = tokenProvider.generateToken(user.getUsername(), user.getRole().toString());
 
         // Send user created event to Kafka
-        kafkaTemplate.send("user-events", "USER_CREATED", user.getId().toString());
+        outboxPublisher.publish("user-events", user.getId().toString(), "USER_CREATED", user.getId().toString());
 
         return new AuthResponse(token, user.getUsername(), user.getRole().toString());
     }
@@ -0,0 +1,23 @@
+-- User service schema as it stood when Hibernate's ddl-auto=update still managed it.
+-- IF NOT EXISTS lets the script run against a database update already built, which keeps
+-- its own names for the unique constraints.
+
+CREATE TABLE IF NOT EXISTS users (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  username varchar(255) NOT NULL UNIQUE,
+  email varchar(255) NOT NULL UNIQUE,
+  password varchar(255) NOT NULL,
+  full_name varchar(255),
+  phone_number varchar(255),
+  role varchar(255),
+  created_at timestamp,
+  updated_at timestamp
+);
+
+CREATE TABLE IF NOT EXISTS user_outbox (
+  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  topic varchar(255) NOT NULL,
+  message_key varchar(255) NOT NULL,
+  payload text NOT NULL,
+  created_at timestamp NOT NULL
+);